@@ -0,0 +1,63 @@
+package com.hotelbooking.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Catalog caches, sized and expired through spring.cache.caffeine.spec in application.yml
+    public static final String HOTELS_CACHE = "hotels";
+    public static final String HOTEL_CACHE = "hotel";
+    public static final String ROOM_TYPES_CACHE = "roomTypes";
+
+    // Hibernate second-level cache regions; any other region fails startup (missing_cache_strategy: fail)
+    public static final String HOTEL_REGION = "hotel-entities";
+    public static final String ROOM_TYPE_REGION = "room-type-entities";
+
+    @Value("${l2-cache.max-entries:10000}")
+    private long l2MaxEntries;
+
+    @Value("${l2-cache.ttl-seconds:60}")
+    private long l2TtlSeconds;
+
+    // Entities cached on one node never hear about writes on another, so the TTL is what bounds
+    // how long another node's base price or total_rooms change goes unseen
+    @Bean
+    public CacheManager hibernateCacheManager(MeterRegistry meterRegistry) {
+        // One manager per application context; the URI has no scheme or dot, so Caffeine does not
+        // look for a config file behind it
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-l2-" + UUID.randomUUID()), getClass().getClassLoader());
+        for (String region : new String[] {HOTEL_REGION, ROOM_TYPE_REGION}) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(l2MaxEntries));
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(l2TtlSeconds)));
+            configuration.setStatisticsEnabled(true);
+            JCacheMetrics.monitor(meterRegistry, cacheManager.createCache(region, configuration),
+                    Tags.of("cache.level", "l2"));
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+    }
+}
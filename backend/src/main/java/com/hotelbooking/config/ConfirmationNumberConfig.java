@@ -0,0 +1,30 @@
+package com.hotelbooking.config;
+
+import com.hotelbooking.model.ConfirmationNumberGenerator;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+// Bookings take their confirmation number on persist, outside of Spring, so the node id is
+// handed to the generator once at startup. Every application node needs its own node id, so
+// there is no default: two nodes quietly sharing one could hand out the same number.
+@Configuration
+public class ConfirmationNumberConfig {
+
+    @Value("${confirmation-numbers.node-id:}")
+    private String nodeId;
+
+    @PostConstruct
+    void configureGenerator() {
+        if (nodeId == null || nodeId.isBlank()) {
+            throw new IllegalStateException("confirmation-numbers.node-id is not set: give every application node "
+                    + "its own NODE_ID between 0 and " + ConfirmationNumberGenerator.MAX_NODE_ID);
+        }
+        try {
+            ConfirmationNumberGenerator.setNodeId(Integer.parseInt(nodeId.trim()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid confirmation-numbers.node-id '" + nodeId
+                    + "': expected a number between 0 and " + ConfirmationNumberGenerator.MAX_NODE_ID);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.hotelbooking.config;
+
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Starts an in-process Artemis broker with a STOMP acceptor. Exactly one node (or a standalone
+// process) runs it with websocket.broker.embedded.enabled=true; every node, including that one,
+// then uses websocket.broker.mode=relay pointed at its host and port.
+@Configuration
+@ConditionalOnProperty(name = "websocket.broker.embedded.enabled", havingValue = "true")
+public class EmbeddedBrokerConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedBrokerConfig.class);
+
+    @Value("${websocket.broker.embedded.host:0.0.0.0}")
+    private String host;
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int port;
+
+    @Bean(destroyMethod = "stop")
+    public EmbeddedActiveMQ embeddedStompBroker() throws Exception {
+        // /topic/... destinations are pub-sub so every subscribed session gets each message
+        String acceptor = "tcp://" + host + ":" + port + "?protocols=STOMP;multicastPrefix=/topic/";
+
+        ConfigurationImpl configuration = new ConfigurationImpl();
+        configuration.setPersistenceEnabled(false);
+        configuration.setSecurityEnabled(false);
+        configuration.addAcceptorConfiguration("stomp", acceptor);
+
+        EmbeddedActiveMQ broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(configuration);
+        broker.start();
+        logger.info("Embedded STOMP broker listening on {}:{}", host, port);
+        return broker;
+    }
+}
@@ -0,0 +1,31 @@
+package com.hotelbooking.config;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Flyway only sees the primary DataSource (shard 0), so every shard primary is migrated with the
+// same settings. Replicas follow their primary. Only active when spring.flyway.enabled=true.
+@Configuration
+public class FlywayConfig {
+
+    @Bean
+    public FlywayMigrationStrategy shardedMigrationStrategy(ShardRoutingDataSource shardRoutingDataSource) {
+        return flyway -> {
+            Map<Object, DataSource> shards = new TreeMap<>(shardRoutingDataSource.getResolvedDataSources());
+            for (DataSource shard : shards.values()) {
+                // Outside a transaction a ReplicaRoutingDataSource resolves to its primary
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shard)
+                        .load()
+                        .migrate();
+            }
+        };
+    }
+}
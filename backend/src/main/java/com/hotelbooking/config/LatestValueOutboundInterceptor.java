@@ -0,0 +1,105 @@
+package com.hotelbooking.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Conflates the client outbound queue per event. Publishers list the coalesce keys of the events a
+// message carries in the coalesce-keys header; a queued message is dropped only when every one of
+// its keys is also carried by a newer message queued for the same session and destination, so a
+// slow client skips superseded values but never loses an event. Messages without the header are
+// always delivered.
+public class LatestValueOutboundInterceptor implements ExecutorChannelInterceptor {
+
+    public static final String COALESCE_KEYS_HEADER = "coalesce-keys";
+
+    // Separates keys inside the header value; STOMP escapes it on the wire
+    public static final String KEY_SEPARATOR = "\n";
+
+    // sessionId -> destination + key -> newest queued message carrying that key
+    private final Map<String, Map<String, Message<?>>> latestBySession = new ConcurrentHashMap<>();
+
+    private final Counter droppedMessages;
+
+    public LatestValueOutboundInterceptor(MeterRegistry meterRegistry) {
+        this.droppedMessages = Counter.builder("websocket.outbound.conflated")
+                .description("Outbound messages dropped because newer ones queued for the same destination carried all their events")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        if (sessionId == null) {
+            return message;
+        }
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(headers);
+        if (type == SimpMessageType.DISCONNECT_ACK) {
+            sessionClosed(sessionId);
+            return message;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        String[] keys = coalesceKeys(headers);
+        if (type == SimpMessageType.MESSAGE && destination != null && keys != null) {
+            Map<String, Message<?>> latest = latestBySession.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>());
+            for (String key : keys) {
+                latest.put(destination + KEY_SEPARATOR + key, message);
+            }
+        }
+        return message;
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        MessageHeaders headers = message.getHeaders();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        String[] keys = coalesceKeys(headers);
+        if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+                || sessionId == null || destination == null || keys == null) {
+            return message;
+        }
+        Map<String, Message<?>> latest = latestBySession.get(sessionId);
+        if (latest == null) {
+            return message;
+        }
+        // Still the newest carrier of at least one key: deliver, and release every key it holds
+        boolean newest = false;
+        for (String key : keys) {
+            newest |= latest.remove(destination + KEY_SEPARATOR + key, message);
+        }
+        if (newest) {
+            return message;
+        }
+        droppedMessages.increment();
+        return null;
+    }
+
+    // Also called for SessionDisconnectEvent, since a dropped connection never sends DISCONNECT_ACK
+    public void sessionClosed(String sessionId) {
+        latestBySession.remove(sessionId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String[] coalesceKeys(MessageHeaders headers) {
+        Map<String, List<String>> nativeHeaders =
+                (Map<String, List<String>>) headers.get(NativeMessageHeaderAccessor.NATIVE_HEADERS);
+        List<String> values = nativeHeaders != null ? nativeHeaders.get(COALESCE_KEYS_HEADER) : null;
+        if (values == null || values.isEmpty() || values.get(0).isEmpty()) {
+            return null;
+        }
+        return values.get(0).split(KEY_SEPARATOR);
+    }
+}
@@ -0,0 +1,81 @@
+package com.hotelbooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Read replica of spring.datasource (shard 0). Extra shards name their own replica through
+// sharding.shards[n].replica-url. Leaving url empty disables replica routing.
+@ConfigurationProperties(prefix = "replica")
+public class ReplicaProperties {
+
+    private String url;
+    private String username;
+    private String password;
+
+    // A user who has just written reads from the primary for this long
+    private long readYourWritesWindowMs = 5000;
+
+    // Optional query returning the replica's lag in seconds, e.g. for PostgreSQL:
+    // SELECT COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+    private String lagQuery;
+
+    private long maxLagMs = 5000;
+
+    private long lagCheckIntervalMs = 2000;
+
+    // Getters and Setters
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public long getReadYourWritesWindowMs() {
+        return readYourWritesWindowMs;
+    }
+
+    public void setReadYourWritesWindowMs(long readYourWritesWindowMs) {
+        this.readYourWritesWindowMs = readYourWritesWindowMs;
+    }
+
+    public String getLagQuery() {
+        return lagQuery;
+    }
+
+    public void setLagQuery(String lagQuery) {
+        this.lagQuery = lagQuery;
+    }
+
+    public long getMaxLagMs() {
+        return maxLagMs;
+    }
+
+    public void setMaxLagMs(long maxLagMs) {
+        this.maxLagMs = maxLagMs;
+    }
+
+    public long getLagCheckIntervalMs() {
+        return lagCheckIntervalMs;
+    }
+
+    public void setLagCheckIntervalMs(long lagCheckIntervalMs) {
+        this.lagCheckIntervalMs = lagCheckIntervalMs;
+    }
+}
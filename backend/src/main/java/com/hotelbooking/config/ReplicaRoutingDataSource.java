@@ -0,0 +1,54 @@
+package com.hotelbooking.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Primary/replica pair for one shard. Read-only transactions go to the replica when the policy
+// allows it; everything else goes to the primary. Sits behind a LazyConnectionDataSourceProxy so
+// the transaction's read-only flag is known by the time a connection is picked.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    // Spring Data wraps every repository finder in its own read-only transaction; those stay on
+    // the primary (e.g. the login lookup right after registration) and only service-level
+    // read-only transactions are offloaded
+    private static final String REPOSITORY_TRANSACTION_PREFIX = "org.springframework.data.";
+
+    private final DataSource replica;
+
+    private final ReplicaRoutingPolicy policy;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaRoutingPolicy policy) {
+        this.replica = replica;
+        this.policy = policy;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public DataSource getReplica() {
+        return replica;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (readOnly && isServiceRead()) {
+            return policy.mayReadFromReplica() ? REPLICA : PRIMARY;
+        }
+        if (!readOnly && TransactionSynchronizationManager.isActualTransactionActive()) {
+            policy.recordWrite();
+        }
+        return PRIMARY;
+    }
+
+    private static boolean isServiceRead() {
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        return name != null && !name.startsWith(REPOSITORY_TRANSACTION_PREFIX);
+    }
+}
@@ -0,0 +1,72 @@
+package com.hotelbooking.config;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Decides whether a read-only transaction may use a replica: only while replicas are within the
+// lag budget, and not for a user who wrote within the read-your-writes window
+public class ReplicaRoutingPolicy {
+
+    private final long readYourWritesWindowMs;
+
+    private final Map<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+
+    private volatile boolean replicasHealthy = true;
+
+    public ReplicaRoutingPolicy(long readYourWritesWindowMs) {
+        this.readYourWritesWindowMs = readYourWritesWindowMs;
+    }
+
+    public boolean mayReadFromReplica() {
+        if (!replicasHealthy) {
+            return false;
+        }
+        String user = currentUser();
+        if (user == null) {
+            return true;
+        }
+        Long lastWrite = lastWriteByUser.get(user);
+        if (lastWrite == null) {
+            return true;
+        }
+        if (System.currentTimeMillis() - lastWrite >= readYourWritesWindowMs) {
+            lastWriteByUser.remove(user, lastWrite);
+            return true;
+        }
+        return false;
+    }
+
+    public void recordWrite() {
+        String user = currentUser();
+        if (user != null) {
+            lastWriteByUser.put(user, System.currentTimeMillis());
+        }
+    }
+
+    public boolean isReplicasHealthy() {
+        return replicasHealthy;
+    }
+
+    public void setReplicasHealthy(boolean replicasHealthy) {
+        this.replicasHealthy = replicasHealthy;
+    }
+
+    // Drops users whose window has passed without them reading again
+    public void evictExpiredWrites() {
+        long cutoff = System.currentTimeMillis() - readYourWritesWindowMs;
+        lastWriteByUser.values().removeIf(lastWrite -> lastWrite < cutoff);
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
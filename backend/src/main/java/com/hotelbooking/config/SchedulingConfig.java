@@ -0,0 +1,39 @@
+package com.hotelbooking.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+// The STOMP broker's messageBrokerTaskScheduler stops Spring Boot from creating its default
+// scheduler, so without these beans every @Scheduled job would run on the broker's heartbeat
+// threads. Frequent jobs (event flushes, repricing, replication) get taskScheduler; the long
+// nightly and hourly jobs get bulkJobScheduler so they never hold up the frequent ones.
+@Configuration
+public class SchedulingConfig {
+
+    public static final String BULK_JOB_SCHEDULER = "bulkJobScheduler";
+
+    @Value("${spring.task.scheduling.pool.size:4}")
+    private int poolSize;
+
+    @Value("${scheduling.bulk-jobs.pool-size:3}")
+    private int bulkJobPoolSize;
+
+    // Picked by name for @Scheduled methods that do not name a scheduler
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduling-");
+        return scheduler;
+    }
+
+    @Bean(name = BULK_JOB_SCHEDULER)
+    public ThreadPoolTaskScheduler bulkJobScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(bulkJobPoolSize);
+        scheduler.setThreadNamePrefix("bulk-job-");
+        return scheduler;
+    }
+}
@@ -0,0 +1,22 @@
+package com.hotelbooking.config;
+
+// Shard selected for the current thread. Must be set before a transaction starts, because the
+// connection (and so the shard) is fixed when the transaction begins.
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {}
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+}
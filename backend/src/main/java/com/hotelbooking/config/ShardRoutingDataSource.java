@@ -0,0 +1,23 @@
+package com.hotelbooking.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// Hands out connections from the shard in ShardContext; with no shard selected (catalog, users,
+// background jobs) it falls back to shard 0
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final int shardCount;
+
+    public ShardRoutingDataSource(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
@@ -0,0 +1,112 @@
+package com.hotelbooking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// DataSource stack: LazyConnectionDataSourceProxy -> ShardRoutingDataSource (by hotel shard)
+// -> ReplicaRoutingDataSource (primary or replica, only for shards with a replica) -> Hikari pools
+@Configuration
+@EnableConfigurationProperties({ShardingProperties.class, ReplicaProperties.class})
+public class ShardingConfig {
+
+    @Bean
+    public ReplicaRoutingPolicy replicaRoutingPolicy(ReplicaProperties replicaProperties) {
+        return new ReplicaRoutingPolicy(replicaProperties.getReadYourWritesWindowMs());
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                         ShardingProperties shardingProperties,
+                                                         ReplicaProperties replicaProperties,
+                                                         ReplicaRoutingPolicy replicaRoutingPolicy,
+                                                         Environment environment,
+                                                         @Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        List<ShardingProperties.Shard> extraShards = shardingProperties.getShards();
+        boolean replicasConfigured = hasText(replicaProperties.getUrl())
+                || extraShards.stream().anyMatch(shard -> hasText(shard.getReplicaUrl()));
+        if ((!extraShards.isEmpty() || replicasConfigured) && openInView) {
+            // A request-scoped EntityManager would keep its first connection across shards and
+            // across read-only and read-write transactions
+            throw new IllegalStateException("sharding.shards and replica.url require spring.jpa.open-in-view=false");
+        }
+
+        Map<Object, Object> targets = new HashMap<>();
+        String driverClassName = dataSourceProperties.determineDriverClassName();
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        DataSource shardZeroReplica = hasText(replicaProperties.getUrl())
+                ? pool(replicaProperties.getUrl(), replicaProperties.getUsername(), replicaProperties.getPassword(),
+                        driverClassName, "shard-0-replica", environment)
+                : null;
+        targets.put(0, withReplica(withPoolSettings(primary, "shard-0", environment), shardZeroReplica,
+                replicaRoutingPolicy));
+
+        for (int i = 0; i < extraShards.size(); i++) {
+            ShardingProperties.Shard shard = extraShards.get(i);
+            String shardDriver = shard.getDriverClassName() != null ? shard.getDriverClassName() : driverClassName;
+            DataSource shardPrimary = pool(shard.getUrl(), shard.getUsername(), shard.getPassword(),
+                    shardDriver, "shard-" + (i + 1), environment);
+            DataSource shardReplica = hasText(shard.getReplicaUrl())
+                    ? pool(shard.getReplicaUrl(), shard.getUsername(), shard.getPassword(),
+                            shardDriver, "shard-" + (i + 1) + "-replica", environment)
+                    : null;
+            targets.put(i + 1, withReplica(shardPrimary, shardReplica, replicaRoutingPolicy));
+        }
+
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource(targets.size());
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(targets.get(0));
+        return routingDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        // Defers picking a shard and primary/replica until the first statement, when the shard
+        // context and the transaction's read-only flag are both in place
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    private static DataSource withReplica(DataSource primary, DataSource replica, ReplicaRoutingPolicy policy) {
+        return replica == null ? primary : new ReplicaRoutingDataSource(primary, replica, policy);
+    }
+
+    private static DataSource pool(String url, String username, String password, String driverClassName,
+                                   String poolName, Environment environment) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .driverClassName(driverClassName)
+                .build();
+        return withPoolSettings(dataSource, poolName, environment);
+    }
+
+    // Every pool gets the same spring.datasource.hikari settings
+    private static DataSource withPoolSettings(HikariDataSource dataSource, String poolName, Environment environment) {
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(poolName);
+        return dataSource;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,93 @@
+package com.hotelbooking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Extra booking/inventory shards. Shard 0 is always spring.datasource; each entry here adds
+// shard 1, 2, ... in order. Hotels are assigned to shards by hotelId modulo the shard count.
+@ConfigurationProperties(prefix = "sharding")
+public class ShardingProperties {
+
+    private List<Shard> shards = new ArrayList<>();
+
+    private int scatterThreads = 4;
+
+    // Shard i hands out booking and payment ids starting at i * idBlockSize, so an id names its shard
+    private long idBlockSize = 1_000_000_000_000L;
+
+    // Getters and Setters
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    public int getScatterThreads() {
+        return scatterThreads;
+    }
+
+    public void setScatterThreads(int scatterThreads) {
+        this.scatterThreads = scatterThreads;
+    }
+
+    public long getIdBlockSize() {
+        return idBlockSize;
+    }
+
+    public void setIdBlockSize(long idBlockSize) {
+        this.idBlockSize = idBlockSize;
+    }
+
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private String replicaUrl;
+
+        // Getters and Setters
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public String getDriverClassName() {
+            return driverClassName;
+        }
+
+        public void setDriverClassName(String driverClassName) {
+            this.driverClassName = driverClassName;
+        }
+
+        public String getReplicaUrl() {
+            return replicaUrl;
+        }
+
+        public void setReplicaUrl(String replicaUrl) {
+            this.replicaUrl = replicaUrl;
+        }
+    }
+}
@@ -1,19 +1,123 @@
 package com.hotelbooking.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // "simple" keeps subscriptions in this JVM; "relay" forwards them to an external STOMP broker
+    // so a message published on any node reaches subscribers connected to every node
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${websocket.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    // A session whose pending sends exceed either limit is closed rather than buffered further
+    @Value("${websocket.transport.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${websocket.transport.send-buffer-size-limit:262144}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${websocket.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${websocket.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+
+    @Value("${websocket.outbound.queue-capacity:100000}")
+    private int outboundQueueCapacity;
+
+    @Value("${websocket.outbound.conflate-latest:true}")
+    private boolean conflateLatest;
+
+    @Value("${websocket.inbound.core-pool-size:4}")
+    private int inboundCorePoolSize;
+
+    @Value("${websocket.inbound.max-pool-size:16}")
+    private int inboundMaxPoolSize;
+
+    @Value("${websocket.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${websocket.heartbeat.send-interval-ms:10000}")
+    private long heartbeatSendIntervalMs;
+
+    @Value("${websocket.heartbeat.receive-interval-ms:10000}")
+    private long heartbeatReceiveIntervalMs;
+
+    @Value("${websocket.sockjs.heartbeat-ms:25000}")
+    private long sockJsHeartbeatMs;
+
+    @Value("${websocket.sockjs.disconnect-delay-ms:5000}")
+    private long sockJsDisconnectDelayMs;
+
+    @Value("${websocket.sockjs.stream-bytes-limit:131072}")
+    private int sockJsStreamBytesLimit;
+
+    @Value("${websocket.sockjs.http-message-cache-size:100}")
+    private int sockJsHttpMessageCacheSize;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    private LatestValueOutboundInterceptor latestValueOutboundInterceptor;
+
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler taskScheduler) {
+        this.messageBrokerTaskScheduler = taskScheduler;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple memory-based message broker to carry messages back to the client
-        config.enableSimpleBroker("/topic");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            config.enableStompBrokerRelay("/topic")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    .setSystemHeartbeatSendInterval(heartbeatSendIntervalMs)
+                    .setSystemHeartbeatReceiveInterval(heartbeatReceiveIntervalMs);
+        } else {
+            // Enable a simple memory-based message broker to carry messages back to the client
+            config.enableSimpleBroker("/topic")
+                    .setHeartbeatValue(new long[] {heartbeatSendIntervalMs, heartbeatReceiveIntervalMs})
+                    .setTaskScheduler(messageBrokerTaskScheduler);
+        }
         // Set application destination prefix for messages bound for @MessageMapping methods
         config.setApplicationDestinationPrefixes("/app");
     }
@@ -23,6 +127,57 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // Register STOMP endpoint for WebSocket connections
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*")
-                .withSockJS();
+                .withSockJS()
+                .setHeartbeatTime(sockJsHeartbeatMs)
+                .setDisconnectDelay(sockJsDisconnectDelayMs)
+                .setStreamBytesLimit(sockJsStreamBytesLimit)
+                .setHttpMessageCacheSize(sockJsHttpMessageCacheSize);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        registration.taskExecutor(executor)
+                .corePoolSize(inboundCorePoolSize)
+                .maxPoolSize(inboundMaxPoolSize)
+                .queueCapacity(inboundQueueCapacity);
+        registerExecutorGauges("websocket.inbound", executor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        registration.taskExecutor(executor)
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+        if (conflateLatest) {
+            latestValueOutboundInterceptor = new LatestValueOutboundInterceptor(meterRegistry);
+            registration.interceptors(latestValueOutboundInterceptor);
+        }
+        registerExecutorGauges("websocket.outbound", executor);
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        if (latestValueOutboundInterceptor != null) {
+            latestValueOutboundInterceptor.sessionClosed(event.getSessionId());
+        }
+    }
+
+    private void registerExecutorGauges(String prefix, ThreadPoolTaskExecutor executor) {
+        Gauge.builder(prefix + ".queue.size", executor, ThreadPoolTaskExecutor::getQueueSize)
+                .description("Messages waiting for a channel thread")
+                .register(meterRegistry);
+        Gauge.builder(prefix + ".active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Channel threads currently handling a message")
+                .register(meterRegistry);
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,13 @@
 package com.hotelbooking.controller;
 
 import com.hotelbooking.dto.BookingRequest;
+import com.hotelbooking.dto.GroupBookingRequest;
 import com.hotelbooking.model.Booking;
 import com.hotelbooking.model.User;
 import com.hotelbooking.service.BookingService;
+import com.hotelbooking.service.GroupBookingService;
+import com.hotelbooking.service.HoldService;
+import com.hotelbooking.service.IdempotencyService;
 import com.hotelbooking.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,24 +31,123 @@ public class BookingController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private GroupBookingService groupBookingService;
+
+    // Retries that repeat the Idempotency-Key header get the first booking back
     @PostMapping
     public ResponseEntity<?> createBooking(@Valid @RequestBody BookingRequest bookingRequest, 
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                                          Authentication authentication) {
         try {
             String email = authentication.getName();
             User user = userService.findByEmail(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
-            Booking booking = bookingService.createBooking(
+            Booking booking = idempotencyService.execute("create-booking", user.getId(), idempotencyKey,
+                    bookingRequest, () -> bookingService.createBooking(
+                            user.getId(),
+                            bookingRequest.getHotelId(),
+                            bookingRequest.getRoomTypeId(),
+                            bookingRequest.getCheckInDate(),
+                            bookingRequest.getCheckOutDate(),
+                            bookingRequest.getGuestCount(),
+                            bookingRequest.getPaymentMethod(),
+                            bookingRequest.getQuoteToken()
+                    ));
+
+            return ResponseEntity.ok(booking);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Books every room of the group or none of them; one confirmation email covers all rooms
+    @PostMapping("/group")
+    public ResponseEntity<?> createGroupBooking(@Valid @RequestBody GroupBookingRequest groupRequest,
+                                                @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                                Authentication authentication) {
+        try {
+            String email = authentication.getName();
+            User user = userService.findByEmail(email)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            List<Booking> bookings = idempotencyService.execute("create-group-booking", user.getId(), idempotencyKey,
+                    groupRequest, () -> groupBookingService.createGroupBooking(
+                            user.getId(), groupRequest.getHotelId(), groupRequest.getRooms()));
+
+            return ResponseEntity.ok(bookings);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Holds the room for the checkout; the response carries holdExpiresAt
+    @PostMapping("/holds")
+    public ResponseEntity<?> placeHold(@Valid @RequestBody BookingRequest bookingRequest,
+                                       Authentication authentication) {
+        try {
+            String email = authentication.getName();
+            User user = userService.findByEmail(email)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            Booking hold = holdService.placeHold(
                     user.getId(),
                     bookingRequest.getHotelId(),
                     bookingRequest.getRoomTypeId(),
                     bookingRequest.getCheckInDate(),
                     bookingRequest.getCheckOutDate(),
                     bookingRequest.getGuestCount(),
-                    bookingRequest.getPaymentMethod()
+                    bookingRequest.getQuoteToken()
             );
 
+            return ResponseEntity.ok(hold);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @PostMapping("/holds/{id}/confirm")
+    public ResponseEntity<?> confirmHold(@PathVariable Long id,
+                                         @RequestParam String paymentMethod,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                         Authentication authentication) {
+        try {
+            String email = authentication.getName();
+            User user = userService.findByEmail(email)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            Booking booking = idempotencyService.execute("confirm-hold", user.getId(), idempotencyKey,
+                    List.of(id, paymentMethod),
+                    () -> holdService.confirmHold(id, user.getId(), paymentMethod));
+            return ResponseEntity.ok(booking);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @DeleteMapping("/holds/{id}")
+    public ResponseEntity<?> releaseHold(@PathVariable Long id, Authentication authentication) {
+        try {
+            String email = authentication.getName();
+            User user = userService.findByEmail(email)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            Booking booking = holdService.releaseHold(id, user.getId());
             return ResponseEntity.ok(booking);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
@@ -41,6 +41,7 @@ public class EmailTestController {
 
             Booking mockBooking = new Booking();
             mockBooking.setId(12345L);
+            mockBooking.setConfirmationNumber(ConfirmationNumberGenerator.next());
             mockBooking.setUser(user);
             mockBooking.setHotel(hotel);
             mockBooking.setRoomType(roomType);
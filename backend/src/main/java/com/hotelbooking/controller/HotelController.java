@@ -5,6 +5,8 @@ import com.hotelbooking.model.Hotel;
 import com.hotelbooking.model.RoomType;
 import com.hotelbooking.model.User;
 import com.hotelbooking.model.UserRole;
+import com.hotelbooking.service.CatalogPayloadService;
+import com.hotelbooking.service.CatalogPayloadService.CatalogPayload;
 import com.hotelbooking.service.HotelService;
 import com.hotelbooking.service.UserService;
 import com.hotelbooking.service.NotificationService;
@@ -13,14 +15,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/hotels")
@@ -36,6 +48,9 @@ public class HotelController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private CatalogPayloadService catalogPayloadService;
+
     @GetMapping("/search")
     public ResponseEntity<?> searchHotels(
             @RequestParam(required = false) String city,
@@ -44,20 +59,20 @@ public class HotelController {
             @RequestParam(required = false) String checkOutDate,
             @RequestParam(required = false) Integer guestCount,
             @RequestParam(required = false) Integer starRating,
+            @RequestParam(required = false) List<String> amenities,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
         try {
             Pageable pageable = PageRequest.of(page, size);
-            Page<Hotel> hotels = hotelService.searchHotels(city, country, starRating, pageable);
+            Page<Hotel> hotels = hotelService.searchHotels(city, country, starRating, amenities, pageable);
+            Map<String, Object> facets = new HashMap<>();
+            facets.put("facets", hotelService.getSearchFacets(city, country, starRating, amenities));
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("hotels", hotels.getContent());
-            response.put("currentPage", hotels.getNumber());
-            response.put("totalItems", hotels.getTotalElements());
-            response.put("totalPages", hotels.getTotalPages());
-            
-            return ResponseEntity.ok(response);
+            // Hotels are spliced in from pre-serialized fragments instead of re-running Jackson
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(catalogPayloadService.writeHotelPage(hotels, facets));
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Error searching hotels: " + e.getMessage());
@@ -66,8 +81,15 @@ public class HotelController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getHotelById(@PathVariable Long id) {
+    public ResponseEntity<?> getHotelById(@PathVariable Long id, WebRequest webRequest) {
         try {
+            Optional<LocalDateTime> lastModified = hotelService.getHotelLastModified(id);
+            if (lastModified.isPresent()) {
+                String etag = "hotel-" + id + "-" + toEpochMillis(lastModified.get());
+                return conditionalResponse(webRequest, etag, lastModified.get(),
+                        () -> hotelService.getHotelById(id));
+            }
+
             Hotel hotel = hotelService.getHotelById(id);
             return ResponseEntity.ok(hotel);
         } catch (Exception e) {
@@ -82,7 +104,9 @@ public class HotelController {
             @PathVariable Long id,
             @RequestParam(required = false) String checkInDate,
             @RequestParam(required = false) String checkOutDate,
-            @RequestParam(required = false) Integer guestCount) {
+            @RequestParam(required = false) Integer guestCount,
+            @RequestParam(required = false) List<String> amenities,
+            WebRequest webRequest) {
         
         try {
             LocalDate checkIn = checkInDate != null ? LocalDate.parse(checkInDate) : null;
@@ -91,11 +115,20 @@ public class HotelController {
             List<RoomType> roomTypes;
             if (checkIn != null && checkOut != null) {
                 roomTypes = hotelService.getAvailableRoomTypes(id, checkIn, checkOut, guestCount);
+            } else if (amenities == null || amenities.isEmpty()) {
+                // The unfiltered list only depends on catalog data, so it can be revalidated cheaply
+                LocalDateTime lastModified = hotelService.getRoomTypesLastModified(id);
+                if (lastModified != null) {
+                    String etag = "rooms-" + id + "-" + hotelService.getRoomTypeCount(id) + "-" + toEpochMillis(lastModified);
+                    return conditionalResponse(webRequest, etag, lastModified,
+                            () -> hotelService.getRoomTypesByHotel(id));
+                }
+                roomTypes = hotelService.getRoomTypesByHotel(id);
             } else {
                 roomTypes = hotelService.getRoomTypesByHotel(id);
             }
             
-            return ResponseEntity.ok(roomTypes);
+            return ResponseEntity.ok(hotelService.filterRoomTypesByAmenities(roomTypes, amenities));
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Error fetching room types: " + e.getMessage());
@@ -104,8 +137,25 @@ public class HotelController {
     }
 
     @GetMapping
-    public ResponseEntity<?> getAllHotels() {
+    public ResponseEntity<?> getAllHotels(WebRequest webRequest) {
         try {
+            LocalDateTime lastModified = hotelService.getCatalogLastModified();
+            if (lastModified != null) {
+                String version = "hotels-" + hotelService.getHotelCount() + "-" + toEpochMillis(lastModified);
+                boolean gzip = acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+                // The gzip and plain bodies are different representations, so each gets its own ETag
+                String etag = gzip ? version + "-gzip" : version;
+                if (webRequest.checkNotModified(etag, toEpochMillis(lastModified))) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                            .cacheControl(CacheControl.noCache())
+                            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                            .build();
+                }
+
+                CatalogPayload payload = catalogPayloadService.getHotelListPayload(version, () -> hotelService.getAllHotels());
+                return payloadResponse(payload, gzip);
+            }
+
             List<Hotel> hotels = hotelService.getAllHotels();
             return ResponseEntity.ok(hotels);
         } catch (Exception e) {
@@ -262,6 +312,74 @@ public class HotelController {
         }
     }
 
+    private ResponseEntity<?> conditionalResponse(WebRequest webRequest, String etag,
+                                                  LocalDateTime lastModified, Supplier<?> body) {
+        // Clients must revalidate on every use, but unchanged resources cost only a 304.
+        // checkNotModified also writes the ETag and Last-Modified headers onto the response.
+        CacheControl cacheControl = CacheControl.noCache();
+
+        if (webRequest.checkNotModified(etag, toEpochMillis(lastModified))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .body(body.get());
+    }
+
+    private ResponseEntity<byte[]> payloadResponse(CatalogPayload payload, boolean gzip) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        // Serve the stored gzip bytes directly; the container skips responses that already carry an encoding
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.getGzippedJson());
+        }
+        return builder.body(payload.getJson());
+    }
+
+    // gzip is accepted when listed (or covered by "*" when not listed) with a q-value above 0;
+    // "gzip;q=0" is an explicit refusal
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzipQuality = quality;
+            } else if (name.equals("*")) {
+                anyQuality = quality;
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return anyQuality != null && anyQuality > 0;
+    }
+
+    private long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
     private boolean isAdmin(Authentication authentication) {
         try {
             String email = authentication.getName();
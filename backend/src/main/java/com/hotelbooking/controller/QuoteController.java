@@ -0,0 +1,37 @@
+package com.hotelbooking.controller;
+
+import com.hotelbooking.dto.PriceQuote;
+import com.hotelbooking.service.QuoteService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/quotes")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class QuoteController {
+
+    @Autowired
+    private QuoteService quoteService;
+
+    @GetMapping
+    public ResponseEntity<?> getQuote(
+            @RequestParam Long roomTypeId,
+            @RequestParam String checkInDate,
+            @RequestParam String checkOutDate,
+            @RequestParam(defaultValue = "1") Integer guestCount) {
+        try {
+            PriceQuote quote = quoteService.getQuote(roomTypeId, LocalDate.parse(checkInDate),
+                    LocalDate.parse(checkOutDate), guestCount);
+            return ResponseEntity.ok(quote);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error generating quote: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+}
@@ -24,6 +24,8 @@ public class BookingRequest {
 
     private String paymentMethod; // Optional - not used for payment processing
 
+    private String quoteToken; // Optional - signed price quote from /quotes
+
     // Constructors
     public BookingRequest() {}
 
@@ -85,4 +87,12 @@ public class BookingRequest {
     public void setPaymentMethod(String paymentMethod) {
         this.paymentMethod = paymentMethod;
     }
+
+    public String getQuoteToken() {
+        return quoteToken;
+    }
+
+    public void setQuoteToken(String quoteToken) {
+        this.quoteToken = quoteToken;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.hotelbooking.dto;
+
+import com.hotelbooking.model.BookingStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Published after the booking lifecycle processor has committed a status change
+public record BookingTransitionEvent(Long bookingId, Long hotelId, Long roomTypeId,
+                                     LocalDate checkInDate, LocalDate checkOutDate,
+                                     BookingStatus fromStatus, BookingStatus toStatus,
+                                     LocalDateTime transitionedAt) {}
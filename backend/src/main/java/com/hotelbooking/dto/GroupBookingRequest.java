@@ -0,0 +1,103 @@
+package com.hotelbooking.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Many rooms at one hotel, booked together or not at all
+public class GroupBookingRequest {
+    @NotNull(message = "Hotel ID is required")
+    private Long hotelId;
+
+    @NotEmpty(message = "At least one room is required")
+    @Valid
+    private List<RoomRequest> rooms;
+
+    // quantity rooms of one room type for the same dates, each for guestCount guests
+    public static class RoomRequest {
+        @NotNull(message = "Room type ID is required")
+        private Long roomTypeId;
+
+        @NotNull(message = "Check-in date is required")
+        private LocalDate checkInDate;
+
+        @NotNull(message = "Check-out date is required")
+        private LocalDate checkOutDate;
+
+        @NotNull(message = "Guest count is required")
+        @Positive(message = "Guest count must be positive")
+        private Integer guestCount;
+
+        @NotNull(message = "Quantity is required")
+        @Positive(message = "Quantity must be positive")
+        private Integer quantity = 1;
+
+        // Constructors
+        public RoomRequest() {}
+
+        // Getters and Setters
+        public Long getRoomTypeId() {
+            return roomTypeId;
+        }
+
+        public void setRoomTypeId(Long roomTypeId) {
+            this.roomTypeId = roomTypeId;
+        }
+
+        public LocalDate getCheckInDate() {
+            return checkInDate;
+        }
+
+        public void setCheckInDate(LocalDate checkInDate) {
+            this.checkInDate = checkInDate;
+        }
+
+        public LocalDate getCheckOutDate() {
+            return checkOutDate;
+        }
+
+        public void setCheckOutDate(LocalDate checkOutDate) {
+            this.checkOutDate = checkOutDate;
+        }
+
+        public Integer getGuestCount() {
+            return guestCount;
+        }
+
+        public void setGuestCount(Integer guestCount) {
+            this.guestCount = guestCount;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+    }
+
+    // Constructors
+    public GroupBookingRequest() {}
+
+    // Getters and Setters
+    public Long getHotelId() {
+        return hotelId;
+    }
+
+    public void setHotelId(Long hotelId) {
+        this.hotelId = hotelId;
+    }
+
+    public List<RoomRequest> getRooms() {
+        return rooms;
+    }
+
+    public void setRooms(List<RoomRequest> rooms) {
+        this.rooms = rooms;
+    }
+}
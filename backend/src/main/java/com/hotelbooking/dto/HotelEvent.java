@@ -0,0 +1,74 @@
+package com.hotelbooking.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Real-time events published for a hotel. The "type" property keeps the JSON shape the
+// frontend already understands (HOTEL_UPDATE, PRICE_UPDATE, ...).
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = HotelEvent.HotelUpdated.class, name = "HOTEL_UPDATE"),
+        @JsonSubTypes.Type(value = HotelEvent.PriceUpdated.class, name = "PRICE_UPDATE"),
+        @JsonSubTypes.Type(value = HotelEvent.ImageUpdated.class, name = "IMAGE_UPDATE"),
+        @JsonSubTypes.Type(value = HotelEvent.AvailabilityUpdated.class, name = "AVAILABILITY_UPDATE"),
+        @JsonSubTypes.Type(value = HotelEvent.RoomAvailabilityChanged.class, name = "ROOM_AVAILABILITY")
+})
+public sealed interface HotelEvent {
+
+    Long hotelId();
+
+    long timestamp();
+
+    // Events with the same key supersede each other inside a coalescing window
+    @JsonIgnore
+    String coalesceKey();
+
+    record HotelUpdated(Long hotelId, String updateType, long timestamp) implements HotelEvent {
+        @Override
+        public String coalesceKey() {
+            return "HOTEL_UPDATE:" + updateType;
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record PriceUpdated(Long hotelId, String roomType, Double newPrice, LocalDate date, long timestamp)
+            implements HotelEvent {
+        @Override
+        public String coalesceKey() {
+            return date == null ? "PRICE_UPDATE:" + roomType : "PRICE_UPDATE:" + roomType + ":" + date;
+        }
+    }
+
+    record ImageUpdated(Long hotelId, String newImageUrl, long timestamp) implements HotelEvent {
+        @Override
+        public String coalesceKey() {
+            return "IMAGE_UPDATE";
+        }
+    }
+
+    record AvailabilityUpdated(Long hotelId, String roomType, Boolean available, long timestamp)
+            implements HotelEvent {
+        @Override
+        public String coalesceKey() {
+            return "AVAILABILITY_UPDATE:" + roomType;
+        }
+    }
+
+    // Remaining rooms of a room type, as runs of consecutive nights with the same count
+    record RoomAvailabilityChanged(Long hotelId, Long roomTypeId, String roomType, List<RoomsRange> ranges,
+                                   long timestamp) implements HotelEvent {
+        @Override
+        public String coalesceKey() {
+            return "ROOM_AVAILABILITY:" + roomTypeId + ":" + ranges.get(0).startDate()
+                    + ":" + ranges.get(ranges.size() - 1).endDate();
+        }
+    }
+
+    // startDate and endDate are both inclusive nights
+    record RoomsRange(LocalDate startDate, LocalDate endDate, int availableRooms) {}
+}
@@ -0,0 +1,11 @@
+package com.hotelbooking.dto;
+
+import java.util.List;
+
+// One coalesced message per hotel, as delivered on /topic/hotels/{id} and /topic/cities/{city}
+public record HotelEventBatch(String type, Long hotelId, List<HotelEvent> events, long timestamp) {
+
+    public static HotelEventBatch of(Long hotelId, List<HotelEvent> events) {
+        return new HotelEventBatch("HOTEL_EVENTS", hotelId, List.copyOf(events), System.currentTimeMillis());
+    }
+}
@@ -1,6 +1,7 @@
 package com.hotelbooking.dto;
 
 import java.time.LocalDate;
+import java.util.List;
 
 public class HotelSearchRequest {
     private String city;
@@ -9,6 +10,7 @@ public class HotelSearchRequest {
     private LocalDate checkOutDate;
     private Integer guestCount;
     private Integer starRating;
+    private List<String> amenities;
     private Integer page = 0;
     private Integer size = 10;
 
@@ -64,6 +66,14 @@ public class HotelSearchRequest {
         this.starRating = starRating;
     }
 
+    public List<String> getAmenities() {
+        return amenities;
+    }
+
+    public void setAmenities(List<String> amenities) {
+        this.amenities = amenities;
+    }
+
     public Integer getPage() {
         return page;
     }
@@ -10,10 +10,17 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings",
+       indexes = {
+           @Index(name = "idx_bookings_room_type_status_dates",
+                  columnList = "room_type_id, status, check_in_date, check_out_date"),
+           @Index(name = "idx_bookings_user_created", columnList = "user_id, created_at"),
+           @Index(name = "idx_bookings_hotel", columnList = "hotel_id"),
+           @Index(name = "idx_bookings_status", columnList = "status, check_in_date"),
+           @Index(name = "idx_bookings_status_id", columnList = "status, id")
+       })
 public class Booking {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -69,6 +76,10 @@ public class Booking {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Set while the booking is a PENDING hold; the hold is released at this time unless confirmed
+    @Column(name = "hold_expires_at")
+    private LocalDateTime holdExpiresAt;
+
     @OneToOne(mappedBy = "booking", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnoreProperties({"booking", "hibernateLazyInitializer", "handler"})
     private Payment payment;
@@ -78,13 +89,10 @@ public class Booking {
     private Review review;
 
     // Constructors
-    public Booking() {
-        this.confirmationNumber = generateConfirmationNumber();
-    }
+    public Booking() {}
 
     public Booking(User user, Hotel hotel, RoomType roomType, LocalDate checkInDate, 
                    LocalDate checkOutDate, Integer guestCount, BigDecimal totalAmount) {
-        this();
         this.user = user;
         this.hotel = hotel;
         this.roomType = roomType;
@@ -94,8 +102,12 @@ public class Booking {
         this.totalAmount = totalAmount;
     }
 
-    private String generateConfirmationNumber() {
-        return "HB" + UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase();
+    // Only new bookings get a number; loading a booking does not generate one
+    @PrePersist
+    void assignConfirmationNumber() {
+        if (confirmationNumber == null) {
+            confirmationNumber = ConfirmationNumberGenerator.next();
+        }
     }
 
     // Getters and Setters
@@ -195,6 +207,14 @@ public class Booking {
         this.updatedAt = updatedAt;
     }
 
+    public LocalDateTime getHoldExpiresAt() {
+        return holdExpiresAt;
+    }
+
+    public void setHoldExpiresAt(LocalDateTime holdExpiresAt) {
+        this.holdExpiresAt = holdExpiresAt;
+    }
+
     public Payment getPayment() {
         return payment;
     }
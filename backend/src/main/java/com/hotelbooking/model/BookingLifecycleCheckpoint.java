@@ -0,0 +1,55 @@
+package com.hotelbooking.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+// Where an unfinished run of a lifecycle transition stopped on this shard
+@Entity
+@Table(name = "booking_lifecycle_checkpoints")
+public class BookingLifecycleCheckpoint {
+    @Id
+    @Column(length = 50)
+    private String transition;
+
+    @Column(name = "last_booking_id", nullable = false)
+    private Long lastBookingId;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public BookingLifecycleCheckpoint() {}
+
+    public BookingLifecycleCheckpoint(String transition, Long lastBookingId) {
+        this.transition = transition;
+        this.lastBookingId = lastBookingId;
+    }
+
+    // Getters and Setters
+    public String getTransition() {
+        return transition;
+    }
+
+    public void setTransition(String transition) {
+        this.transition = transition;
+    }
+
+    public Long getLastBookingId() {
+        return lastBookingId;
+    }
+
+    public void setLastBookingId(Long lastBookingId) {
+        this.lastBookingId = lastBookingId;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,55 @@
+package com.hotelbooking.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Snowflake-style confirmation numbers: 41 bits of milliseconds since 2024-01-01, a 10-bit node id
+// and a 12-bit sequence, written as "HB" plus 13 Crockford base32 characters. Numbers from one
+// node are strictly increasing and numbers from different nodes never collide, so uniqueness does
+// not depend on luck. Generation is a single CAS: when the 4096 numbers of a millisecond are used
+// up, or the clock steps back, the sequence carries into the next millisecond instead of waiting.
+public final class ConfirmationNumberGenerator {
+
+    private static final String PREFIX = "HB";
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private static final long EPOCH_MS = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int ENCODED_LENGTH = 13; // 63 bits, 5 per character
+
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    // Milliseconds since the epoch shifted left by SEQUENCE_BITS, plus the sequence
+    private static final AtomicLong lastStamp = new AtomicLong();
+
+    private static volatile long nodeId;
+
+    private ConfirmationNumberGenerator() {}
+
+    public static void setNodeId(int id) {
+        if (id < 0 || id > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        nodeId = id;
+    }
+
+    public static String next() {
+        long now = (System.currentTimeMillis() - EPOCH_MS) << SEQUENCE_BITS;
+        long stamp = lastStamp.updateAndGet(last -> Math.max(last + 1, now));
+        long value = (stamp >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                | nodeId << SEQUENCE_BITS
+                | (stamp & SEQUENCE_MASK);
+        return PREFIX + encode(value);
+    }
+
+    // Fixed width, so the text sorts in the same order as the numbers
+    private static String encode(long value) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = CROCKFORD[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+}
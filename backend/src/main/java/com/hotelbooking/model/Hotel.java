@@ -1,9 +1,12 @@
 package com.hotelbooking.model;
 
+import com.hotelbooking.config.CacheConfig;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -12,7 +15,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "hotels")
+@Table(name = "hotels",
+       indexes = @Index(name = "idx_hotels_star_rating", columnList = "star_rating"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.HOTEL_REGION)
 public class Hotel {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
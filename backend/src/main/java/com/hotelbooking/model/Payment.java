@@ -10,7 +10,12 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments",
+       indexes = {
+           @Index(name = "idx_payments_processed_at", columnList = "processed_at"),
+           @Index(name = "idx_payments_status", columnList = "status"),
+           @Index(name = "idx_payments_transaction", columnList = "transaction_id")
+       })
 public class Payment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -9,7 +9,8 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "rooms")
+@Table(name = "rooms",
+       indexes = @Index(name = "idx_rooms_room_type_status", columnList = "room_type_id, status"))
 public class Room {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
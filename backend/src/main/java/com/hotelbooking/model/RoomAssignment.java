@@ -0,0 +1,103 @@
+package com.hotelbooking.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One physical room for a run of nights [startDate, endDate) of a booking. A stay that has to
+// change rooms has one row per room.
+@Entity
+@Table(name = "room_assignments",
+       indexes = {
+           @Index(name = "idx_room_assignments_booking", columnList = "booking_id"),
+           @Index(name = "idx_room_assignments_room_dates", columnList = "room_id, start_date, end_date")
+       })
+public class RoomAssignment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booking_id", nullable = false)
+    @NotNull(message = "Booking is required")
+    private Booking booking;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "room_id", nullable = false)
+    @NotNull(message = "Room is required")
+    private Room room;
+
+    @Column(name = "start_date", nullable = false)
+    @NotNull(message = "Start date is required")
+    private LocalDate startDate;
+
+    @Column(name = "end_date", nullable = false)
+    @NotNull(message = "End date is required")
+    private LocalDate endDate;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public RoomAssignment() {}
+
+    public RoomAssignment(Booking booking, Room room, LocalDate startDate, LocalDate endDate) {
+        this.booking = booking;
+        this.room = room;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Booking getBooking() {
+        return booking;
+    }
+
+    public void setBooking(Booking booking) {
+        this.booking = booking;
+    }
+
+    public Room getRoom() {
+        return room;
+    }
+
+    public void setRoom(Room room) {
+        this.room = room;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -28,6 +28,7 @@ public class RoomAvailability {
     private LocalDate availabilityDate;
 
     @Column(name = "available_rooms", nullable = false)
+    @NotNull(message = "Available rooms is required")
     @PositiveOrZero(message = "Available rooms must be zero or positive")
     private Integer availableRooms;
 
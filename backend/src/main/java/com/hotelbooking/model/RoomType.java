@@ -1,9 +1,15 @@
 package com.hotelbooking.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.hotelbooking.config.CacheConfig;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -12,8 +18,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "room_types")
+@Table(name = "room_types",
+       indexes = @Index(name = "idx_room_types_hotel_price", columnList = "hotel_id, base_price"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.ROOM_TYPE_REGION)
 public class RoomType {
+    public static final int DEFAULT_TOTAL_ROOMS = 10;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -21,6 +32,7 @@ public class RoomType {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "hotel_id", nullable = false)
     @NotNull(message = "Hotel is required")
+    @JsonIgnoreProperties({"roomTypes", "bookings", "reviews", "hibernateLazyInitializer", "handler"})
     private Hotel hotel;
 
     @Column(nullable = false)
@@ -42,6 +54,11 @@ public class RoomType {
     @Column(columnDefinition = "JSON")
     private String amenities;
 
+    // Rooms on sale when the property has not set up individual Room rows
+    @Column(name = "total_rooms", nullable = false, columnDefinition = "INTEGER DEFAULT 10 NOT NULL")
+    @PositiveOrZero(message = "Total rooms must be zero or positive")
+    private Integer totalRooms;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -51,12 +68,15 @@ public class RoomType {
     private LocalDateTime updatedAt;
 
     @OneToMany(mappedBy = "roomType", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @JsonIgnore
     private List<Room> rooms;
 
     @OneToMany(mappedBy = "roomType", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @JsonIgnore
     private List<Booking> bookings;
 
     @OneToMany(mappedBy = "roomType", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @JsonIgnore
     private List<RoomAvailability> roomAvailabilities;
 
     // Constructors
@@ -72,6 +92,14 @@ public class RoomType {
         this.amenities = amenities;
     }
 
+    // Left unset by clients and the seed data; an update without it keeps the current count
+    @PrePersist
+    void applyDefaultTotalRooms() {
+        if (totalRooms == null) {
+            totalRooms = DEFAULT_TOTAL_ROOMS;
+        }
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -129,6 +157,14 @@ public class RoomType {
         this.amenities = amenities;
     }
 
+    public Integer getTotalRooms() {
+        return totalRooms;
+    }
+
+    public void setTotalRooms(Integer totalRooms) {
+        this.totalRooms = totalRooms;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
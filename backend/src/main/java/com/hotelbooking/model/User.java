@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users",
+       indexes = @Index(name = "idx_users_role", columnList = "role"))
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
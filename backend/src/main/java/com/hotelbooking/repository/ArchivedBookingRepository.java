@@ -0,0 +1,29 @@
+package com.hotelbooking.repository;
+
+import com.hotelbooking.model.ArchivedBooking;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+    
+    @EntityGraph(attributePaths = {"user", "hotel", "roomType"})
+    Optional<ArchivedBooking> findWithDetailsByConfirmationNumber(String confirmationNumber);
+    
+    // Copies the bookings in the database, without loading them
+    @Modifying
+    @Query("INSERT INTO ArchivedBooking (id, userId, hotelId, roomTypeId, confirmationNumber, checkInDate, " +
+           "checkOutDate, guestCount, totalAmount, status, createdAt, updatedAt, archivedAt) " +
+           "SELECT b.id, b.user.id, b.hotel.id, b.roomType.id, b.confirmationNumber, b.checkInDate, " +
+           "b.checkOutDate, b.guestCount, b.totalAmount, b.status, b.createdAt, b.updatedAt, :now " +
+           "FROM Booking b WHERE b.id IN :ids")
+    int archiveBookings(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,23 @@
+package com.hotelbooking.repository;
+
+import com.hotelbooking.model.ArchivedPayment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface ArchivedPaymentRepository extends JpaRepository<ArchivedPayment, Long> {
+    
+    @Modifying
+    @Query("INSERT INTO ArchivedPayment (id, bookingId, amount, paymentMethod, transactionId, status, " +
+           "processedAt, createdAt, archivedAt) " +
+           "SELECT p.id, p.booking.id, p.amount, p.paymentMethod, p.transactionId, p.status, " +
+           "p.processedAt, p.createdAt, :now " +
+           "FROM Payment p WHERE p.booking.id IN :bookingIds")
+    int archivePayments(@Param("bookingIds") Collection<Long> bookingIds, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,21 @@
+package com.hotelbooking.repository;
+
+import com.hotelbooking.model.ArchivedReview;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface ArchivedReviewRepository extends JpaRepository<ArchivedReview, Long> {
+    
+    @Modifying
+    @Query("INSERT INTO ArchivedReview (id, userId, hotelId, bookingId, rating, comment, createdAt, archivedAt) " +
+           "SELECT r.id, r.user.id, r.hotel.id, r.booking.id, r.rating, r.comment, r.createdAt, :now " +
+           "FROM Review r WHERE r.booking.id IN :bookingIds")
+    int archiveReviews(@Param("bookingIds") Collection<Long> bookingIds, @Param("now") LocalDateTime now);
+}
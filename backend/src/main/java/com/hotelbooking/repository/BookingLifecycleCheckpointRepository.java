@@ -0,0 +1,9 @@
+package com.hotelbooking.repository;
+
+import com.hotelbooking.model.BookingLifecycleCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BookingLifecycleCheckpointRepository extends JpaRepository<BookingLifecycleCheckpoint, String> {
+}
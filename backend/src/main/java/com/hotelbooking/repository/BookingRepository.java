@@ -3,12 +3,17 @@ package com.hotelbooking.repository;
 import com.hotelbooking.model.Booking;
 import com.hotelbooking.model.BookingStatus;
 import com.hotelbooking.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +25,23 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByUserOrderByCreatedAtDesc(User user);
     
     Optional<Booking> findByConfirmationNumber(String confirmationNumber);
+
+    // Fetch the associations the booking JSON exposes, so results stay usable after a shard's
+    // transaction has closed
+    @EntityGraph(attributePaths = {"user", "hotel", "roomType"})
+    Optional<Booking> findWithDetailsById(Long id);
+
+    @EntityGraph(attributePaths = {"user", "hotel", "roomType"})
+    List<Booking> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    @EntityGraph(attributePaths = {"user", "hotel", "roomType"})
+    Optional<Booking> findWithDetailsByConfirmationNumber(String confirmationNumber);
+
+    @EntityGraph(attributePaths = {"user", "hotel", "roomType"})
+    List<Booking> findWithDetailsByStatus(BookingStatus status);
+
+    @EntityGraph(attributePaths = {"user", "hotel", "roomType"})
+    List<Booking> findWithDetailsByConfirmationNumberIn(Collection<String> confirmationNumbers);
     
     List<Booking> findByStatus(BookingStatus status);
     
@@ -27,17 +49,106 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByHotelId(@Param("hotelId") Long hotelId);
     
     @Query("SELECT b FROM Booking b WHERE b.roomType.id = :roomTypeId AND " +
-           "((b.checkInDate <= :checkOutDate AND b.checkOutDate >= :checkInDate)) AND " +
+           "b.checkInDate < :checkOutDate AND b.checkOutDate > :checkInDate AND " +
            "b.status IN ('CONFIRMED', 'PENDING')")
     List<Booking> findConflictingBookings(@Param("roomTypeId") Long roomTypeId,
                                          @Param("checkInDate") LocalDate checkInDate,
                                          @Param("checkOutDate") LocalDate checkOutDate);
     
+    // Stays holding a room of the type on some night of [fromDate, toDate), to seed inventory rows
+    @Query("SELECT b.checkInDate, b.checkOutDate FROM Booking b WHERE b.roomType.id = :roomTypeId AND " +
+           "b.checkInDate < :toDate AND b.checkOutDate > :fromDate AND b.id <> :excludedId AND " +
+           "b.status IN ('CONFIRMED', 'PENDING')")
+    List<Object[]> findStaysOverlapping(@Param("roomTypeId") Long roomTypeId,
+                                        @Param("fromDate") LocalDate fromDate,
+                                        @Param("toDate") LocalDate toDate,
+                                        @Param("excludedId") Long excludedId);
+
+    // Room type and stay of every booking that still holds a room after fromDate
+    @Query("SELECT b.roomType.id, b.checkInDate, b.checkOutDate FROM Booking b WHERE " +
+           "b.checkOutDate > :fromDate AND b.status IN ('CONFIRMED', 'PENDING')")
+    List<Object[]> findActiveStaysEndingAfter(@Param("fromDate") LocalDate fromDate);
+    
     @Query("SELECT COUNT(b) FROM Booking b WHERE b.roomType.id = :roomTypeId AND " +
            "b.checkInDate <= :date AND b.checkOutDate > :date AND " +
            "b.status IN ('CONFIRMED', 'PENDING')")
     Long countBookingsForDate(@Param("roomTypeId") Long roomTypeId, @Param("date") LocalDate date);
     
+    @Query("SELECT b.id, b.holdExpiresAt FROM Booking b WHERE b.status = 'PENDING' AND b.holdExpiresAt IS NOT NULL")
+    List<Object[]> findHoldExpiries();
+    
+    // Holds past their expiry, whichever node placed them
+    @Query("SELECT b.id FROM Booking b WHERE b.status = 'PENDING' AND b.holdExpiresAt <= :now ORDER BY b.id")
+    List<Long> findExpiredHoldIds(@Param("now") LocalDateTime now, Pageable chunk);
+    
+    // Hold transitions are conditional updates so that confirming, releasing and expiring the same
+    // hold can race (or run on several nodes) and exactly one of them wins
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = com.hotelbooking.model.BookingStatus.CONFIRMED, " +
+           "b.holdExpiresAt = NULL, b.updatedAt = :now " +
+           "WHERE b.id = :id AND b.status = 'PENDING' AND b.holdExpiresAt > :now")
+    int confirmHold(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = com.hotelbooking.model.BookingStatus.CANCELLED, " +
+           "b.holdExpiresAt = NULL, b.updatedAt = :now " +
+           "WHERE b.id = :id AND b.status = 'PENDING' AND b.holdExpiresAt IS NOT NULL")
+    int releaseHold(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = com.hotelbooking.model.BookingStatus.CANCELLED, " +
+           "b.holdExpiresAt = NULL, b.updatedAt = :now " +
+           "WHERE b.id = :id AND b.status = 'PENDING' AND b.holdExpiresAt <= :now")
+    int expireHold(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    // Lifecycle transitions walk a status in id order, one chunk at a time, and update each chunk
+    // with a set-based UPDATE that re-checks the condition so reruns and concurrent runs are no-ops
+    @Query("SELECT b.id FROM Booking b WHERE b.status = 'CONFIRMED' AND b.checkOutDate < :today AND " +
+           "b.id > :afterId ORDER BY b.id")
+    List<Long> findCompletableIds(@Param("today") LocalDate today, @Param("afterId") Long afterId, Pageable chunk);
+    
+    @Query("SELECT b.id FROM Booking b WHERE b.status = 'PENDING' AND b.holdExpiresAt IS NULL AND " +
+           "b.checkInDate < :today AND b.id > :afterId ORDER BY b.id")
+    List<Long> findNoShowIds(@Param("today") LocalDate today, @Param("afterId") Long afterId, Pageable chunk);
+    
+    @Query("SELECT b.id FROM Booking b WHERE b.status = 'PENDING' AND b.holdExpiresAt IS NULL AND " +
+           "b.createdAt < :createdBefore AND b.id > :afterId ORDER BY b.id")
+    List<Long> findStalePendingIds(@Param("createdBefore") LocalDateTime createdBefore,
+                                   @Param("afterId") Long afterId, Pageable chunk);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = com.hotelbooking.model.BookingStatus.COMPLETED, b.updatedAt = :now " +
+           "WHERE b.id IN :ids AND b.status = 'CONFIRMED' AND b.checkOutDate < :today")
+    int completeStays(@Param("ids") Collection<Long> ids, @Param("today") LocalDate today,
+                      @Param("now") LocalDateTime now);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = com.hotelbooking.model.BookingStatus.NO_SHOW, b.updatedAt = :now " +
+           "WHERE b.id IN :ids AND b.status = 'PENDING' AND b.holdExpiresAt IS NULL AND b.checkInDate < :today")
+    int markNoShows(@Param("ids") Collection<Long> ids, @Param("today") LocalDate today,
+                    @Param("now") LocalDateTime now);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = com.hotelbooking.model.BookingStatus.CANCELLED, b.updatedAt = :now " +
+           "WHERE b.id IN :ids AND b.status = 'PENDING' AND b.holdExpiresAt IS NULL AND b.createdAt < :createdBefore")
+    int cancelStalePending(@Param("ids") Collection<Long> ids, @Param("createdBefore") LocalDateTime createdBefore,
+                           @Param("now") LocalDateTime now);
+    
+    // Finished stays that checked out before the cutoff, oldest ids first
+    @Query("SELECT b.id FROM Booking b WHERE b.status IN :statuses AND b.checkOutDate < :cutoff ORDER BY b.id")
+    List<Long> findArchivableIds(@Param("statuses") Collection<BookingStatus> statuses,
+                                 @Param("cutoff") LocalDate cutoff, Pageable chunk);
+    
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // The rows of a chunk that a lifecycle UPDATE stamped with :now
+    @Query("SELECT b.id, b.hotel.id, b.roomType.id, b.checkInDate, b.checkOutDate FROM Booking b " +
+           "WHERE b.id IN :ids AND b.status = :status AND b.updatedAt = :now")
+    List<Object[]> findTransitioned(@Param("ids") Collection<Long> ids, @Param("status") BookingStatus status,
+                                    @Param("now") LocalDateTime now);
+    
     @Query("SELECT b FROM Booking b WHERE b.user.id = :userId AND b.status = :status")
     List<Booking> findByUserIdAndStatus(@Param("userId") Long userId, @Param("status") BookingStatus status);
     
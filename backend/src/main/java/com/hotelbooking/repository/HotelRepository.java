@@ -8,7 +8,10 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface HotelRepository extends JpaRepository<Hotel, Long> {
@@ -22,6 +25,25 @@ public interface HotelRepository extends JpaRepository<Hotel, Long> {
                                      @Param("starRating") Integer starRating, 
                                      Pageable pageable);
     
+    @Query("SELECT h FROM Hotel h WHERE h.id IN :ids AND " +
+           "(:city IS NULL OR LOWER(h.city) LIKE LOWER(CONCAT('%', :city, '%'))) AND " +
+           "(:country IS NULL OR LOWER(h.country) LIKE LOWER(CONCAT('%', :country, '%'))) AND " +
+           "(:starRating IS NULL OR h.starRating >= :starRating)")
+    Page<Hotel> findHotelsWithFiltersAndIds(@Param("ids") Collection<Long> ids,
+                                           @Param("city") String city, 
+                                           @Param("country") String country, 
+                                           @Param("starRating") Integer starRating, 
+                                           Pageable pageable);
+
+    @Query("SELECT h.id FROM Hotel h WHERE h.id IN :ids AND " +
+           "(:city IS NULL OR LOWER(h.city) LIKE LOWER(CONCAT('%', :city, '%'))) AND " +
+           "(:country IS NULL OR LOWER(h.country) LIKE LOWER(CONCAT('%', :country, '%'))) AND " +
+           "(:starRating IS NULL OR h.starRating >= :starRating)")
+    List<Long> findIdsWithFiltersAndIds(@Param("ids") Collection<Long> ids,
+                                        @Param("city") String city,
+                                        @Param("country") String country,
+                                        @Param("starRating") Integer starRating);
+    
     List<Hotel> findByCity(String city);
     
     List<Hotel> findByCountry(String country);
@@ -34,4 +56,13 @@ public interface HotelRepository extends JpaRepository<Hotel, Long> {
     
     @Query("SELECT h FROM Hotel h WHERE LOWER(h.name) LIKE LOWER(CONCAT('%', :name, '%'))")
     List<Hotel> findByNameContaining(@Param("name") String name);
+    
+    @Query("SELECT h.updatedAt FROM Hotel h WHERE h.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+    
+    @Query("SELECT MAX(h.updatedAt) FROM Hotel h")
+    LocalDateTime findMaxUpdatedAt();
+    
+    @Query("SELECT h.id, h.city, h.country, h.starRating FROM Hotel h")
+    List<Object[]> findFacetProjection();
 }
\ No newline at end of file
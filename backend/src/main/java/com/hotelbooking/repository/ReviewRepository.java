@@ -0,0 +1,18 @@
+package com.hotelbooking.repository;
+
+import com.hotelbooking.model.Review;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface ReviewRepository extends JpaRepository<Review, Long> {
+    
+    @Modifying
+    @Query("DELETE FROM Review r WHERE r.booking.id IN :bookingIds")
+    int deleteByBookingIdIn(@Param("bookingIds") Collection<Long> bookingIds);
+}
@@ -0,0 +1,27 @@
+package com.hotelbooking.repository;
+
+import com.hotelbooking.model.RoomAssignment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RoomAssignmentRepository extends JpaRepository<RoomAssignment, Long> {
+    
+    // Assignments of a room type's rooms that share at least one night with [startDate, endDate)
+    @Query("SELECT a FROM RoomAssignment a JOIN FETCH a.room r WHERE r.roomType.id = :roomTypeId AND " +
+           "a.startDate < :endDate AND a.endDate > :startDate")
+    List<RoomAssignment> findOverlapping(@Param("roomTypeId") Long roomTypeId,
+                                         @Param("startDate") LocalDate startDate,
+                                         @Param("endDate") LocalDate endDate);
+    
+    @Modifying
+    @Query("DELETE FROM RoomAssignment a WHERE a.booking.id IN :bookingIds")
+    int deleteByBookingIdIn(@Param("bookingIds") Collection<Long> bookingIds);
+}
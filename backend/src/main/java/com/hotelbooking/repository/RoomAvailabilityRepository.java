@@ -2,11 +2,13 @@ package com.hotelbooking.repository;
 
 import com.hotelbooking.model.RoomAvailability;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,4 +30,35 @@ public interface RoomAvailabilityRepository extends JpaRepository<RoomAvailabili
     List<RoomAvailability> findByHotelIdAndDateRange(@Param("hotelId") Long hotelId,
                                                     @Param("startDate") LocalDate startDate,
                                                     @Param("endDate") LocalDate endDate);
+
+    // Night and rooms left of every row in [startDate, endDate); scalars, so values changed by the
+    // bulk updates below are read from the database rather than from managed entities
+    @Query("SELECT ra.availabilityDate, ra.availableRooms FROM RoomAvailability ra WHERE " +
+           "ra.roomType.id = :roomTypeId AND ra.availabilityDate >= :startDate AND ra.availabilityDate < :endDate")
+    List<Object[]> findRemaining(@Param("roomTypeId") Long roomTypeId,
+                                 @Param("startDate") LocalDate startDate,
+                                 @Param("endDate") LocalDate endDate);
+
+    // Callers check the rows first under the room type lock; the condition keeps a row from going
+    // below zero even so. Not cleared automatically, so the booking being written stays managed.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RoomAvailability ra SET ra.availableRooms = ra.availableRooms - :rooms, ra.updatedAt = :now " +
+           "WHERE ra.roomType.id = :roomTypeId AND ra.availabilityDate >= :startDate " +
+           "AND ra.availabilityDate < :endDate AND ra.availableRooms >= :rooms")
+    int takeRooms(@Param("roomTypeId") Long roomTypeId, @Param("startDate") LocalDate startDate,
+                  @Param("endDate") LocalDate endDate, @Param("rooms") int rooms, @Param("now") LocalDateTime now);
+
+    // Moves every row by a change in capacity; a decrease stops at zero rather than going below it
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RoomAvailability ra SET ra.availableRooms = CASE WHEN ra.availableRooms + :rooms < 0 THEN 0 " +
+           "ELSE ra.availableRooms + :rooms END, ra.updatedAt = :now " +
+           "WHERE ra.roomType.id = :roomTypeId AND ra.availabilityDate >= :startDate AND ra.availabilityDate < :endDate")
+    int shiftCapacity(@Param("roomTypeId") Long roomTypeId, @Param("startDate") LocalDate startDate,
+                      @Param("endDate") LocalDate endDate, @Param("rooms") int rooms, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RoomAvailability ra SET ra.availableRooms = ra.availableRooms + :rooms, ra.updatedAt = :now " +
+           "WHERE ra.roomType.id = :roomTypeId AND ra.availabilityDate >= :startDate AND ra.availabilityDate < :endDate")
+    int returnRooms(@Param("roomTypeId") Long roomTypeId, @Param("startDate") LocalDate startDate,
+                    @Param("endDate") LocalDate endDate, @Param("rooms") int rooms, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.hotelbooking.repository;
+
+import com.hotelbooking.model.Room;
+import com.hotelbooking.model.RoomStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RoomRepository extends JpaRepository<Room, Long> {
+    
+    long countByRoomTypeIdAndStatusNotIn(Long roomTypeId, Collection<RoomStatus> statuses);
+    
+    @Query("SELECT r FROM Room r WHERE r.roomType.id = :roomTypeId AND r.status NOT IN :excludedStatuses " +
+           "ORDER BY r.roomNumber")
+    List<Room> findAssignableRooms(@Param("roomTypeId") Long roomTypeId,
+                                   @Param("excludedStatuses") Collection<RoomStatus> excludedStatuses);
+}
@@ -1,17 +1,24 @@
 package com.hotelbooking.repository;
 
 import com.hotelbooking.model.RoomType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface RoomTypeRepository extends JpaRepository<RoomType, Long> {
     
+    @EntityGraph(attributePaths = "hotel")
     List<RoomType> findByHotelId(Long hotelId);
     
     @Query("SELECT rt FROM RoomType rt WHERE rt.hotel.id = :hotelId AND rt.capacity >= :minCapacity")
@@ -26,4 +33,29 @@ public interface RoomTypeRepository extends JpaRepository<RoomType, Long> {
     
     @Query("SELECT rt FROM RoomType rt WHERE rt.hotel.id = :hotelId ORDER BY rt.basePrice ASC")
     List<RoomType> findByHotelIdOrderByPriceAsc(@Param("hotelId") Long hotelId);
+    
+    @Query("SELECT MAX(rt.updatedAt) FROM RoomType rt WHERE rt.hotel.id = :hotelId")
+    LocalDateTime findMaxUpdatedAtByHotelId(@Param("hotelId") Long hotelId);
+    
+    @Query("SELECT COUNT(rt) FROM RoomType rt WHERE rt.hotel.id = :hotelId")
+    long countByHotelId(@Param("hotelId") Long hotelId);
+    
+    // Rows are locked in id order, so transactions locking overlapping sets queue instead of deadlocking
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT rt FROM RoomType rt WHERE rt.hotel.id = :hotelId AND rt.id IN :ids ORDER BY rt.id")
+    List<RoomType> lockByHotelIdAndIdIn(@Param("hotelId") Long hotelId, @Param("ids") Collection<Long> ids);
+    
+    // A scalar, so it is read from this shard's row and not from a managed or second-level cached entity
+    @Query("SELECT rt.totalRooms FROM RoomType rt WHERE rt.id = :id")
+    Integer findTotalRoomsById(@Param("id") Long id);
+    
+    // Writes the total committed on shard 0 into this shard's copy ahead of replication; updatedAt is
+    // the committed row's, so the replicator neither redoes nor undoes it
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RoomType rt SET rt.totalRooms = :totalRooms, rt.updatedAt = :updatedAt WHERE rt.id = :id")
+    int updateTotalRooms(@Param("id") Long id, @Param("totalRooms") int totalRooms,
+                         @Param("updatedAt") LocalDateTime updatedAt);
+    
+    @Query("SELECT rt.hotel.id, MIN(rt.basePrice) FROM RoomType rt GROUP BY rt.hotel.id")
+    List<Object[]> findMinBasePricePerHotel();
 }
\ No newline at end of file
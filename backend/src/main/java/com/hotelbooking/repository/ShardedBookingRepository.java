@@ -0,0 +1,75 @@
+package com.hotelbooking.repository;
+
+import com.hotelbooking.model.Booking;
+import com.hotelbooking.model.BookingStatus;
+import com.hotelbooking.service.ShardRouter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+// BookingRepository routed by hotel: hotel-scoped queries go to the hotel's shard, lookups by id
+// go to the shard encoded in the id, and user/status queries scatter-gather across shards
+@Component
+public class ShardedBookingRepository {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    public List<Booking> findByHotelId(Long hotelId) {
+        return shardRouter.readInHotelShard(hotelId, () -> bookingRepository.findByHotelId(hotelId));
+    }
+
+    public List<Booking> findConflictingBookings(Long hotelId, Long roomTypeId, LocalDate checkInDate, LocalDate checkOutDate) {
+        return shardRouter.readInHotelShard(hotelId,
+                () -> bookingRepository.findConflictingBookings(roomTypeId, checkInDate, checkOutDate));
+    }
+
+    public List<Object[]> findActiveStaysEndingAfter(LocalDate fromDate) {
+        return shardRouter.scatterGather(() -> bookingRepository.findActiveStaysEndingAfter(fromDate));
+    }
+
+    public List<Object[]> findHoldExpiries() {
+        return shardRouter.scatterGather(bookingRepository::findHoldExpiries);
+    }
+
+    // Up to limit ids per shard
+    public List<Long> findExpiredHoldIds(LocalDateTime now, int limit) {
+        return shardRouter.scatterGather(() -> bookingRepository.findExpiredHoldIds(now, PageRequest.of(0, limit)));
+    }
+
+    public List<Booking> findByRoomTypeIdAndStatusIn(Long hotelId, Long roomTypeId, List<BookingStatus> statuses) {
+        return shardRouter.readInHotelShard(hotelId,
+                () -> bookingRepository.findByRoomTypeIdAndStatusIn(roomTypeId, statuses));
+    }
+
+    public Optional<Booking> findById(Long bookingId) {
+        return shardRouter.inShard(shardRouter.shardForId(bookingId), true,
+                () -> bookingRepository.findWithDetailsById(bookingId));
+    }
+
+    public List<Booking> findByUserId(Long userId) {
+        List<Booking> bookings = shardRouter.scatterGather(() -> bookingRepository.findByUserIdOrderByCreatedAtDesc(userId));
+        bookings.sort(Comparator.comparing(Booking::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+        return bookings;
+    }
+
+    public List<Booking> findByStatus(BookingStatus status) {
+        return shardRouter.scatterGather(() -> bookingRepository.findWithDetailsByStatus(status));
+    }
+
+    public Optional<Booking> findByConfirmationNumber(String confirmationNumber) {
+        return shardRouter.scatterGather(() -> bookingRepository.findWithDetailsByConfirmationNumber(confirmationNumber)
+                        .map(List::of).orElse(List.of()))
+                .stream()
+                .findFirst();
+    }
+}
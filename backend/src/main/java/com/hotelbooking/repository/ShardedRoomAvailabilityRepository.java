@@ -0,0 +1,26 @@
+package com.hotelbooking.repository;
+
+import com.hotelbooking.model.RoomAvailability;
+import com.hotelbooking.service.ShardRouter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// RoomAvailabilityRepository routed to the shard that owns the hotel
+@Component
+public class ShardedRoomAvailabilityRepository {
+
+    @Autowired
+    private RoomAvailabilityRepository roomAvailabilityRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    public List<RoomAvailability> findByRoomTypeIdAndDateRange(Long hotelId, Long roomTypeId,
+                                                               LocalDate startDate, LocalDate endDate) {
+        return shardRouter.readInHotelShard(hotelId,
+                () -> roomAvailabilityRepository.findByRoomTypeIdAndDateRange(roomTypeId, startDate, endDate));
+    }
+}
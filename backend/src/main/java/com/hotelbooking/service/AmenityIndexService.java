@@ -0,0 +1,289 @@
+package com.hotelbooking.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotelbooking.model.Hotel;
+import com.hotelbooking.model.RoomType;
+import com.hotelbooking.repository.HotelRepository;
+import com.hotelbooking.repository.RoomTypeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Amenity JSON is parsed once when a hotel or room type is indexed. Each distinct amenity gets a
+// dense bit position, and per-amenity posting bitsets over hotel ordinals answer
+// "pool AND spa AND wifi" with a few word-wise ANDs instead of per-row JSON parsing. Room types
+// keep one bitset each, checked when a hotel's rooms are filtered by amenity. Edits on this node
+// are indexed as they are saved; the index is rebuilt every rebuild-ms so edits made on other
+// nodes show up too.
+@Service
+public class AmenityIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AmenityIndexService.class);
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private RoomTypeRepository roomTypeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Amenity dictionary: normalized key -> bit position, and bit position -> display name
+    private final Map<String, Integer> amenityCodes = new HashMap<>();
+    private final List<String> amenityNames = new ArrayList<>();
+
+    // Hotels are addressed by a dense ordinal so postings stay compact
+    private final Map<Long, Integer> hotelOrdinals = new HashMap<>();
+    private final List<Long> hotelIds = new ArrayList<>();
+    private final List<BitSet> hotelAmenities = new ArrayList<>();
+    private final List<BitSet> hotelPostings = new ArrayList<>();
+
+    private final Map<Long, BitSet> roomTypeAmenities = new HashMap<>();
+
+    // An edit saved on this node between the queries and the rebuild may be missing until the
+    // following rebuild
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${amenity-index.rebuild-ms:300000}", initialDelayString = "${amenity-index.rebuild-ms:300000}")
+    public void rebuild() {
+        List<Hotel> hotels = hotelRepository.findAll();
+        List<RoomType> roomTypes = roomTypeRepository.findAll();
+
+        lock.writeLock().lock();
+        try {
+            amenityCodes.clear();
+            amenityNames.clear();
+            hotelOrdinals.clear();
+            hotelIds.clear();
+            hotelAmenities.clear();
+            hotelPostings.clear();
+            roomTypeAmenities.clear();
+
+            for (Hotel hotel : hotels) {
+                putHotel(hotel);
+            }
+            for (RoomType roomType : roomTypes) {
+                roomTypeAmenities.put(roomType.getId(), encode(roomType.getAmenities()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        logger.debug("Amenity index built: {} hotels, {} room types, {} distinct amenities",
+                hotels.size(), roomTypes.size(), amenityNames.size());
+    }
+
+    public void indexHotel(Hotel hotel) {
+        lock.writeLock().lock();
+        try {
+            putHotel(hotel);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeHotel(Long hotelId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = hotelOrdinals.get(hotelId);
+            if (ordinal != null) {
+                clearPostings(ordinal);
+                // The ordinal slot is left behind empty; it simply never matches again
+                hotelAmenities.set(ordinal, new BitSet());
+                hotelOrdinals.remove(hotelId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void indexRoomType(RoomType roomType) {
+        lock.writeLock().lock();
+        try {
+            roomTypeAmenities.put(roomType.getId(), encode(roomType.getAmenities()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeRoomType(Long roomTypeId) {
+        lock.writeLock().lock();
+        try {
+            roomTypeAmenities.remove(roomTypeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Unknown amenities match nothing
+    public List<Long> findHotelIdsWithAll(Collection<String> amenities) {
+        lock.readLock().lock();
+        try {
+            BitSet result = null;
+            for (String amenity : amenities) {
+                Integer code = amenityCodes.get(normalize(amenity));
+                if (code == null) {
+                    return List.of();
+                }
+                if (result == null) {
+                    result = (BitSet) hotelPostings.get(code).clone();
+                } else {
+                    result.and(hotelPostings.get(code));
+                }
+                if (result.isEmpty()) {
+                    return List.of();
+                }
+            }
+            if (result == null) {
+                return new ArrayList<>(hotelOrdinals.keySet());
+            }
+
+            List<Long> ids = new ArrayList<>(result.cardinality());
+            for (int ordinal = result.nextSetBit(0); ordinal >= 0; ordinal = result.nextSetBit(ordinal + 1)) {
+                ids.add(hotelIds.get(ordinal));
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // False for a room type not indexed yet and for amenities no hotel or room type has
+    public boolean roomTypeHasAll(Long roomTypeId, Collection<String> amenities) {
+        lock.readLock().lock();
+        try {
+            BitSet available = roomTypeAmenities.get(roomTypeId);
+            BitSet required = lookup(amenities);
+            if (available == null || required == null) {
+                return false;
+            }
+            required.andNot(available);
+            return required.isEmpty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Bit positions index into getAmenityNames(); the returned copy is safe to keep
+    public BitSet getHotelAmenities(Long hotelId) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = hotelOrdinals.get(hotelId);
+            return ordinal != null ? (BitSet) hotelAmenities.get(ordinal).clone() : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> getAmenityNames() {
+        lock.readLock().lock();
+        try {
+            return List.copyOf(amenityNames);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Must be called with the write lock held
+    private void putHotel(Hotel hotel) {
+        Integer ordinal = hotelOrdinals.get(hotel.getId());
+        if (ordinal == null) {
+            ordinal = hotelIds.size();
+            hotelOrdinals.put(hotel.getId(), ordinal);
+            hotelIds.add(hotel.getId());
+            hotelAmenities.add(new BitSet());
+        } else {
+            clearPostings(ordinal);
+        }
+
+        BitSet amenities = encode(hotel.getAmenities());
+        hotelAmenities.set(ordinal, amenities);
+        for (int code = amenities.nextSetBit(0); code >= 0; code = amenities.nextSetBit(code + 1)) {
+            hotelPostings.get(code).set(ordinal);
+        }
+    }
+
+    // Must be called with the write lock held
+    private void clearPostings(int ordinal) {
+        BitSet previous = hotelAmenities.get(ordinal);
+        for (int code = previous.nextSetBit(0); code >= 0; code = previous.nextSetBit(code + 1)) {
+            hotelPostings.get(code).clear(ordinal);
+        }
+    }
+
+    // Must be called with the write lock held; grows the dictionary for unseen amenities
+    private BitSet encode(String amenitiesJson) {
+        BitSet bits = new BitSet();
+        for (String amenity : parse(amenitiesJson)) {
+            String key = normalize(amenity);
+            if (key.isEmpty()) {
+                continue;
+            }
+            Integer code = amenityCodes.get(key);
+            if (code == null) {
+                code = amenityNames.size();
+                amenityCodes.put(key, code);
+                amenityNames.add(amenity.trim());
+                hotelPostings.add(new BitSet());
+            }
+            bits.set(code);
+        }
+        return bits;
+    }
+
+    // Must be called with the read lock held; null when an amenity is not in the dictionary
+    private BitSet lookup(Collection<String> amenities) {
+        BitSet bits = new BitSet();
+        for (String amenity : amenities) {
+            Integer code = amenityCodes.get(normalize(amenity));
+            if (code == null) {
+                return null;
+            }
+            bits.set(code);
+        }
+        return bits;
+    }
+
+    private List<String> parse(String amenitiesJson) {
+        List<String> amenities = new ArrayList<>();
+        if (amenitiesJson == null || amenitiesJson.isBlank()) {
+            return amenities;
+        }
+
+        try {
+            JsonNode node = objectMapper.readTree(amenitiesJson);
+            if (node.isArray()) {
+                node.forEach(item -> amenities.add(item.asText()));
+                return amenities;
+            }
+        } catch (Exception e) {
+            // Older admin edits stored plain comma-separated text; fall through and split it
+        }
+
+        for (String amenity : amenitiesJson.split(",")) {
+            amenities.add(amenity);
+        }
+        return amenities;
+    }
+
+    static String normalize(String amenity) {
+        return amenity.trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("(^-|-$)", "");
+    }
+}
@@ -0,0 +1,146 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.dto.HotelEvent;
+import com.hotelbooking.model.RoomType;
+import com.hotelbooking.repository.RoomAvailabilityRepository;
+import com.hotelbooking.repository.RoomTypeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Pushes committed remaining-room counts to /topic/hotels/{id}. Committed inventory changes report
+// the nights they touched, debounced per room type: a room type is published once it has been quiet
+// for the debounce window, or after the max delay while bookings keep arriving, so a flash sale
+// yields a steady trickle of events. Counts are read from room_availability when publishing, so
+// changes committing in any order still end with the latest value.
+@Service
+public class AvailabilityPushService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityPushService.class);
+
+    @Autowired
+    private RoomTypeRepository roomTypeRepository;
+
+    @Autowired
+    private RoomAvailabilityRepository roomAvailabilityRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${notifications.availability-debounce-ms:500}")
+    private long debounceMs;
+
+    @Value("${notifications.availability-max-delay-ms:3000}")
+    private long maxDelayMs;
+
+    private final Map<Long, PendingAvailability> pending = new ConcurrentHashMap<>();
+
+    public void recordChanged(Long roomTypeId, SortedSet<LocalDate> nights) {
+        long now = System.currentTimeMillis();
+        pending.compute(roomTypeId, (id, current) -> {
+            PendingAvailability next = current != null ? current : new PendingAvailability(now);
+            next.nights.addAll(nights);
+            next.lastChangeAt = now;
+            return next;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.coalesce-window-ms:250}")
+    public void publishSettled() {
+        long now = System.currentTimeMillis();
+        for (Long roomTypeId : new ArrayList<>(pending.keySet())) {
+            PendingAvailability[] ready = new PendingAvailability[1];
+            pending.computeIfPresent(roomTypeId, (id, current) -> {
+                boolean quiet = now - current.lastChangeAt >= debounceMs;
+                boolean overdue = now - current.firstChangeAt >= maxDelayMs;
+                if (quiet || overdue) {
+                    ready[0] = current;
+                    return null;
+                }
+                return current;
+            });
+            if (ready[0] == null) {
+                continue;
+            }
+            try {
+                publish(roomTypeId, ready[0].nights);
+            } catch (Exception e) {
+                logger.warn("Failed to publish availability for room type {}: {}", roomTypeId, e.getMessage());
+                recordChanged(roomTypeId, ready[0].nights);
+            }
+        }
+    }
+
+    private void publish(Long roomTypeId, TreeSet<LocalDate> nights) {
+        RoomType roomType = roomTypeRepository.findById(roomTypeId).orElse(null);
+        if (roomType == null || nights.isEmpty()) {
+            return;
+        }
+        Long hotelId = roomType.getHotel().getId();
+        // The primary, so a replica behind the commit cannot publish an older count
+        List<Object[]> rows = shardRouter.inHotelShard(hotelId, () -> roomAvailabilityRepository.findRemaining(
+                roomTypeId, nights.first(), nights.last().plusDays(1)));
+        TreeMap<LocalDate, Integer> remaining = new TreeMap<>();
+        for (Object[] row : rows) {
+            if (nights.contains((LocalDate) row[0])) {
+                remaining.put((LocalDate) row[0], (Integer) row[1]);
+            }
+        }
+        if (remaining.isEmpty()) {
+            return;
+        }
+        notificationService.notifyRoomAvailability(hotelId, roomTypeId, roomType.getName(),
+                toRanges(remaining));
+    }
+
+    // Collapses consecutive nights with the same count into one range
+    static List<HotelEvent.RoomsRange> toRanges(TreeMap<LocalDate, Integer> remaining) {
+        List<HotelEvent.RoomsRange> ranges = new ArrayList<>();
+        LocalDate start = null;
+        LocalDate end = null;
+        int rooms = 0;
+        for (Map.Entry<LocalDate, Integer> night : remaining.entrySet()) {
+            boolean continuesRun = start != null && night.getKey().equals(end.plusDays(1)) && night.getValue() == rooms;
+            if (continuesRun) {
+                end = night.getKey();
+                continue;
+            }
+            if (start != null) {
+                ranges.add(new HotelEvent.RoomsRange(start, end, rooms));
+            }
+            start = night.getKey();
+            end = night.getKey();
+            rooms = night.getValue();
+        }
+        if (start != null) {
+            ranges.add(new HotelEvent.RoomsRange(start, end, rooms));
+        }
+        return ranges;
+    }
+
+    private static final class PendingAvailability {
+        private final long firstChangeAt;
+        private long lastChangeAt;
+        private final TreeSet<LocalDate> nights = new TreeSet<>();
+
+        private PendingAvailability(long firstChangeAt) {
+            this.firstChangeAt = firstChangeAt;
+            this.lastChangeAt = firstChangeAt;
+        }
+    }
+}
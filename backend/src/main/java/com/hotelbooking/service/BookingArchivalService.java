@@ -0,0 +1,141 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.config.SchedulingConfig;
+import com.hotelbooking.model.ArchivedBooking;
+import com.hotelbooking.model.Booking;
+import com.hotelbooking.model.BookingStatus;
+import com.hotelbooking.repository.ArchivedBookingRepository;
+import com.hotelbooking.repository.ArchivedPaymentRepository;
+import com.hotelbooking.repository.ArchivedReviewRepository;
+import com.hotelbooking.repository.BookingRepository;
+import com.hotelbooking.repository.PaymentRepository;
+import com.hotelbooking.repository.ReviewRepository;
+import com.hotelbooking.repository.RoomAssignmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// Keeps bookings, payments and reviews down to the recent past. Finished stays (COMPLETED,
+// CANCELLED, NO_SHOW) that checked out more than horizon-days ago are moved, with their payment and
+// review, into the *_archive tables of the same shard, and their room assignments are dropped.
+// Each chunk is copied with INSERT ... SELECT and deleted in the same transaction, so a row is
+// always in exactly one of the two tables and an interrupted run just continues with what is left.
+@Service
+public class BookingArchivalService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingArchivalService.class);
+
+    private static final Set<BookingStatus> FINISHED = EnumSet.of(
+            BookingStatus.COMPLETED, BookingStatus.CANCELLED, BookingStatus.NO_SHOW);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private RoomAssignmentRepository roomAssignmentRepository;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Autowired
+    private ArchivedPaymentRepository archivedPaymentRepository;
+
+    @Autowired
+    private ArchivedReviewRepository archivedReviewRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${archival.horizon-days:365}")
+    private int horizonDays;
+
+    @Value("${archival.chunk-size:1000}")
+    private int chunkSize;
+
+    @Scheduled(cron = "${archival.cron:0 0 4 * * *}", scheduler = SchedulingConfig.BULK_JOB_SCHEDULER)
+    public void archiveAll() {
+        LocalDate cutoff = LocalDate.now().minusDays(horizonDays);
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            long startedAt = System.currentTimeMillis();
+            long archived = 0;
+            try {
+                int moved;
+                do {
+                    moved = shardRouter.inShard(shard, false, () -> archiveChunk(cutoff));
+                    archived += moved;
+                } while (moved > 0);
+            } catch (Exception e) {
+                logger.error("Booking archival failed on shard {}: {}", shard, e.getMessage());
+            }
+
+            long elapsedMs = System.currentTimeMillis() - startedAt;
+            if (archived > 0) {
+                logger.info("Archived {} bookings checked out before {} on shard {} in {} ms ({} rows/s)",
+                        archived, cutoff, shard, elapsedMs, archived * 1000 / Math.max(1, elapsedMs));
+            }
+        }
+    }
+
+    private int archiveChunk(LocalDate cutoff) {
+        List<Long> ids = bookingRepository.findArchivableIds(FINISHED, cutoff, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        archivedBookingRepository.archiveBookings(ids, now);
+        archivedPaymentRepository.archivePayments(ids, now);
+        archivedReviewRepository.archiveReviews(ids, now);
+
+        // Children first: payments, reviews and room assignments reference the booking
+        roomAssignmentRepository.deleteByBookingIdIn(ids);
+        reviewRepository.deleteByBookingIdIn(ids);
+        paymentRepository.deleteByBookingIdIn(ids);
+        bookingRepository.deleteByIdIn(ids);
+        return ids.size();
+    }
+
+    // Archived bookings come back as detached Booking objects without payment or review
+    public Optional<Booking> findArchivedBooking(String confirmationNumber) {
+        return shardRouter.scatterGather(() -> archivedBookingRepository
+                        .findWithDetailsByConfirmationNumber(confirmationNumber)
+                        .map(archived -> List.of(toBooking(archived)))
+                        .orElse(List.of()))
+                .stream()
+                .findFirst();
+    }
+
+    private static Booking toBooking(ArchivedBooking archived) {
+        Booking booking = new Booking();
+        booking.setId(archived.getId());
+        booking.setUser(archived.getUser());
+        booking.setHotel(archived.getHotel());
+        booking.setRoomType(archived.getRoomType());
+        booking.setConfirmationNumber(archived.getConfirmationNumber());
+        booking.setCheckInDate(archived.getCheckInDate());
+        booking.setCheckOutDate(archived.getCheckOutDate());
+        booking.setGuestCount(archived.getGuestCount());
+        booking.setTotalAmount(archived.getTotalAmount());
+        booking.setStatus(archived.getStatus());
+        booking.setCreatedAt(archived.getCreatedAt());
+        booking.setUpdatedAt(archived.getUpdatedAt());
+        return booking;
+    }
+}
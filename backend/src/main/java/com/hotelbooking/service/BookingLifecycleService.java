@@ -0,0 +1,163 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.config.SchedulingConfig;
+import com.hotelbooking.dto.BookingTransitionEvent;
+import com.hotelbooking.model.BookingLifecycleCheckpoint;
+import com.hotelbooking.model.BookingStatus;
+import com.hotelbooking.repository.BookingLifecycleCheckpointRepository;
+import com.hotelbooking.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+// Moves bookings along their lifecycle in bulk: stays whose check-out has passed become COMPLETED,
+// unconfirmed PENDING bookings whose arrival has passed become NO_SHOW, and unconfirmed PENDING
+// bookings older than pending-ttl-hours are CANCELLED (checkout holds expire on their own timer).
+// Each shard is walked in id order in chunks; a chunk is one set-based UPDATE that re-checks the
+// condition, so a rerun or a second node running at the same time changes nothing twice. The last
+// id of every committed chunk is checkpointed, and a run that was interrupted resumes from there.
+@Service
+public class BookingLifecycleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingLifecycleService.class);
+
+    enum Transition {
+        COMPLETE_STAYS(BookingStatus.CONFIRMED, BookingStatus.COMPLETED),
+        MARK_NO_SHOWS(BookingStatus.PENDING, BookingStatus.NO_SHOW),
+        CANCEL_STALE_PENDING(BookingStatus.PENDING, BookingStatus.CANCELLED);
+
+        private final BookingStatus from;
+        private final BookingStatus to;
+
+        Transition(BookingStatus from, BookingStatus to) {
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingLifecycleCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OccupancyIndexService occupancyIndexService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${booking-lifecycle.chunk-size:2000}")
+    private int chunkSize;
+
+    @Value("${booking-lifecycle.pending-ttl-hours:24}")
+    private long pendingTtlHours;
+
+    @Scheduled(cron = "${booking-lifecycle.cron:0 15 * * * *}", scheduler = SchedulingConfig.BULK_JOB_SCHEDULER)
+    public void processAll() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime staleBefore = LocalDateTime.now().minusHours(pendingTtlHours);
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            for (Transition transition : Transition.values()) {
+                try {
+                    process(shard, transition, today, staleBefore);
+                } catch (Exception e) {
+                    // The checkpoint keeps the progress; the next run resumes from it
+                    logger.error("Booking lifecycle {} failed on shard {}: {}", transition, shard, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void process(int shard, Transition transition, LocalDate today, LocalDateTime staleBefore) {
+        long startedAt = System.currentTimeMillis();
+        long afterId = shardRouter.inShard(shard, true, () -> checkpointRepository.findById(transition.name())
+                .map(BookingLifecycleCheckpoint::getLastBookingId)
+                .orElse(0L));
+        if (afterId > 0) {
+            logger.info("Resuming booking lifecycle {} on shard {} after booking {}", transition, shard, afterId);
+        }
+
+        long scanned = 0;
+        long transitioned = 0;
+        while (true) {
+            long from = afterId;
+            List<BookingTransitionEvent> events = new ArrayList<>();
+            List<Long> ids = shardRouter.inShard(shard, false,
+                    () -> processChunk(transition, from, today, staleBefore, events));
+            // Listeners only ever see committed transitions
+            events.forEach(eventPublisher::publishEvent);
+            if (ids.isEmpty()) {
+                break;
+            }
+            scanned += ids.size();
+            transitioned += events.size();
+            afterId = ids.get(ids.size() - 1);
+        }
+
+        long elapsedMs = System.currentTimeMillis() - startedAt;
+        if (scanned > 0) {
+            logger.info("Booking lifecycle {} on shard {}: {} of {} bookings moved to {} in {} ms ({} rows/s)",
+                    transition, shard, transitioned, scanned, transition.to, elapsedMs,
+                    scanned * 1000 / Math.max(1, elapsedMs));
+        }
+    }
+
+    // One transaction: select the next chunk, update it, read back what changed and checkpoint
+    private List<Long> processChunk(Transition transition, long afterId, LocalDate today,
+                                    LocalDateTime staleBefore, List<BookingTransitionEvent> events) {
+        Pageable chunk = PageRequest.of(0, chunkSize);
+        List<Long> ids = switch (transition) {
+            case COMPLETE_STAYS -> bookingRepository.findCompletableIds(today, afterId, chunk);
+            case MARK_NO_SHOWS -> bookingRepository.findNoShowIds(today, afterId, chunk);
+            case CANCEL_STALE_PENDING -> bookingRepository.findStalePendingIds(staleBefore, afterId, chunk);
+        };
+        if (ids.isEmpty()) {
+            // The run is finished; the next one starts from the beginning
+            checkpointRepository.save(new BookingLifecycleCheckpoint(transition.name(), 0L));
+            return ids;
+        }
+
+        // Truncated so the stamp reads back equal from any database
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        int updated = switch (transition) {
+            case COMPLETE_STAYS -> bookingRepository.completeStays(ids, today, now);
+            case MARK_NO_SHOWS -> bookingRepository.markNoShows(ids, today, now);
+            case CANCEL_STALE_PENDING -> bookingRepository.cancelStalePending(ids, staleBefore, now);
+        };
+
+        if (updated > 0) {
+            for (Object[] row : bookingRepository.findTransitioned(ids, transition.to, now)) {
+                BookingTransitionEvent event = new BookingTransitionEvent((Long) row[0], (Long) row[1], (Long) row[2],
+                        (LocalDate) row[3], (LocalDate) row[4], transition.from, transition.to, now);
+                if (transition.from == BookingStatus.PENDING) {
+                    // An unconfirmed booking no longer holds its room
+                    inventoryService.release(event.roomTypeId(), event.checkInDate(), event.checkOutDate(), 1);
+                    occupancyIndexService.recordStay(event.roomTypeId(), event.checkInDate(), event.checkOutDate(), -1);
+                }
+                events.add(event);
+            }
+        }
+
+        checkpointRepository.save(new BookingLifecycleCheckpoint(transition.name(), ids.get(ids.size() - 1)));
+        return ids;
+    }
+}
@@ -4,14 +4,13 @@ import com.hotelbooking.model.*;
 import com.hotelbooking.repository.BookingRepository;
 import com.hotelbooking.repository.HotelRepository;
 import com.hotelbooking.repository.RoomTypeRepository;
+import com.hotelbooking.repository.ShardedBookingRepository;
 import com.hotelbooking.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +20,12 @@ public class BookingService {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private ShardedBookingRepository shardedBookingRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -36,13 +41,44 @@ public class BookingService {
     @Autowired
     private EmailService emailService;
 
-    @Transactional
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private QuoteService quoteService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OccupancyIndexService occupancyIndexService;
+
+    @Autowired
+    private RoomAssignmentService roomAssignmentService;
+
+    @Autowired
+    private BookingArchivalService bookingArchivalService;
+
     public Booking createBooking(Long userId, Long hotelId, Long roomTypeId, 
                                LocalDate checkInDate, LocalDate checkOutDate, 
                                Integer guestCount, String paymentMethod) {
+        return createBooking(userId, hotelId, roomTypeId, checkInDate, checkOutDate, guestCount, paymentMethod, null);
+    }
+
+    // Runs in a transaction on the hotel's shard
+    public Booking createBooking(Long userId, Long hotelId, Long roomTypeId, 
+                               LocalDate checkInDate, LocalDate checkOutDate, 
+                               Integer guestCount, String paymentMethod, String quoteToken) {
+        return shardRouter.inHotelShard(hotelId, () -> doCreateBooking(userId, hotelId, roomTypeId,
+                checkInDate, checkOutDate, guestCount, quoteToken));
+    }
+
+    private Booking doCreateBooking(Long userId, Long hotelId, Long roomTypeId,
+                                    LocalDate checkInDate, LocalDate checkOutDate,
+                                    Integer guestCount, String quoteToken) {
         
         // Validate input
-        if (checkInDate.isAfter(checkOutDate) || checkInDate.isBefore(LocalDate.now())) {
+        if (!checkInDate.isBefore(checkOutDate) || checkInDate.isBefore(LocalDate.now())) {
             throw new RuntimeException("Invalid check-in or check-out date");
         }
 
@@ -59,14 +95,19 @@ public class BookingService {
             throw new RuntimeException("Guest count exceeds room capacity");
         }
 
-        // Check availability
-        if (!isRoomTypeAvailable(roomTypeId, checkInDate, checkOutDate)) {
+        // Locks the room type and takes the room on every night, the same check holds and group
+        // bookings go through; before the booking row exists, so seeding does not count it
+        if (!inventoryService.tryReserve(roomType, checkInDate, checkOutDate, 1)) {
             throw new RuntimeException("Room type not available for selected dates");
         }
 
-        // Calculate total amount
-        long numberOfNights = ChronoUnit.DAYS.between(checkInDate, checkOutDate);
-        BigDecimal totalAmount = roomType.getBasePrice().multiply(BigDecimal.valueOf(numberOfNights));
+        // A signed quote fixes the price the guest was shown, so it is honoured without repricing
+        BigDecimal totalAmount;
+        if (quoteToken != null && !quoteToken.isBlank()) {
+            totalAmount = quoteService.verifyQuote(quoteToken, roomTypeId, checkInDate, checkOutDate, guestCount);
+        } else {
+            totalAmount = pricingService.quoteStay(roomTypeId, checkInDate, checkOutDate);
+        }
 
         // Create booking
         Booking booking = new Booking(user, hotel, roomType, checkInDate, checkOutDate, guestCount, totalAmount);
@@ -75,6 +116,8 @@ public class BookingService {
         booking.setStatus(BookingStatus.CONFIRMED);
         
         booking = bookingRepository.save(booking);
+        roomAssignmentService.assignRooms(booking);
+        occupancyIndexService.recordStay(roomTypeId, checkInDate, checkOutDate, 1);
 
         // Send booking confirmation email
         try {
@@ -90,25 +133,31 @@ public class BookingService {
     public List<Booking> getUserBookings(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        return bookingRepository.findByUserOrderByCreatedAtDesc(user);
+        return shardedBookingRepository.findByUserId(user.getId());
     }
 
     public Optional<Booking> findById(Long id) {
-        return bookingRepository.findById(id);
+        return shardedBookingRepository.findById(id);
     }
 
     public Booking getBookingById(Long id) {
-        return bookingRepository.findById(id)
+        return shardedBookingRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
     }
 
+    // Falls back to the archive for stays that have been moved out of the hot tables
     public Optional<Booking> findByConfirmationNumber(String confirmationNumber) {
-        return bookingRepository.findByConfirmationNumber(confirmationNumber);
+        Optional<Booking> booking = shardedBookingRepository.findByConfirmationNumber(confirmationNumber);
+        return booking.isPresent() ? booking : bookingArchivalService.findArchivedBooking(confirmationNumber);
     }
 
-    @Transactional
     public Booking cancelBooking(Long bookingId, Long userId) {
-        Booking booking = bookingRepository.findById(bookingId)
+        return shardRouter.inShard(shardRouter.shardForId(bookingId), false,
+                () -> doCancelBooking(bookingId, userId));
+    }
+
+    private Booking doCancelBooking(Long bookingId, Long userId) {
+        Booking booking = bookingRepository.findWithDetailsById(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
 
         // Verify ownership
@@ -127,9 +176,19 @@ public class BookingService {
             throw new RuntimeException("Cannot cancel booking less than 24 hours before check-in");
         }
 
+        // A NO_SHOW already gave its room back when the lifecycle moved it
+        boolean holdsRoom = booking.getStatus() == BookingStatus.CONFIRMED || booking.getStatus() == BookingStatus.PENDING;
         booking.setStatus(BookingStatus.CANCELLED);
+        booking.setHoldExpiresAt(null);
         
         Booking cancelledBooking = bookingRepository.save(booking);
+        roomAssignmentService.releaseRooms(bookingId);
+        if (holdsRoom) {
+            inventoryService.release(booking.getRoomType().getId(),
+                    booking.getCheckInDate(), booking.getCheckOutDate(), 1);
+            occupancyIndexService.recordStay(booking.getRoomType().getId(),
+                    booking.getCheckInDate(), booking.getCheckOutDate(), -1);
+        }
 
         // Send booking cancellation email
         try {
@@ -142,10 +201,15 @@ public class BookingService {
         return cancelledBooking;
     }
 
-    @Transactional
     public Booking updateBooking(Long bookingId, Long userId, LocalDate newCheckInDate, 
                                LocalDate newCheckOutDate, Integer newGuestCount) {
-        Booking booking = bookingRepository.findById(bookingId)
+        return shardRouter.inShard(shardRouter.shardForId(bookingId), false,
+                () -> doUpdateBooking(bookingId, userId, newCheckInDate, newCheckOutDate, newGuestCount));
+    }
+
+    private Booking doUpdateBooking(Long bookingId, Long userId, LocalDate newCheckInDate,
+                                    LocalDate newCheckOutDate, Integer newGuestCount) {
+        Booking booking = bookingRepository.findWithDetailsById(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
 
         // Verify ownership
@@ -160,15 +224,19 @@ public class BookingService {
         }
 
         // Validate new dates
-        if (newCheckInDate.isAfter(newCheckOutDate) || 
+        if (!newCheckInDate.isBefore(newCheckOutDate) || 
             newCheckInDate.isBefore(LocalDate.now())) {
             throw new RuntimeException("Invalid check-in or check-out date");
         }
 
-        // Check availability for new dates
-        if (!isRoomTypeAvailable(booking.getRoomType().getId(), newCheckInDate, newCheckOutDate)) {
+        // Release the old nights and take the new ones; a failure rolls both back
+        Long roomTypeId = booking.getRoomType().getId();
+        inventoryService.release(roomTypeId, booking.getCheckInDate(), booking.getCheckOutDate(), 1);
+        if (!inventoryService.tryReserve(booking.getRoomType(), newCheckInDate, newCheckOutDate, 1, bookingId)) {
             throw new RuntimeException("Room type not available for new dates");
         }
+        occupancyIndexService.recordStay(roomTypeId, booking.getCheckInDate(), booking.getCheckOutDate(), -1);
+        occupancyIndexService.recordStay(roomTypeId, newCheckInDate, newCheckOutDate, 1);
 
         // Update booking
         booking.setCheckInDate(newCheckInDate);
@@ -176,34 +244,20 @@ public class BookingService {
         booking.setGuestCount(newGuestCount);
 
         // Recalculate total amount
-        long numberOfNights = ChronoUnit.DAYS.between(newCheckInDate, newCheckOutDate);
-        BigDecimal newTotalAmount = booking.getRoomType().getBasePrice()
-                .multiply(BigDecimal.valueOf(numberOfNights));
+        BigDecimal newTotalAmount = pricingService.quoteStay(roomTypeId, newCheckInDate, newCheckOutDate);
         booking.setTotalAmount(newTotalAmount);
 
-        return bookingRepository.save(booking);
-    }
-
-    private boolean isRoomTypeAvailable(Long roomTypeId, LocalDate checkInDate, LocalDate checkOutDate) {
-        // Temporarily disable availability check for testing
-        // TODO: Implement proper room inventory management
-        return true;
-        
-        /*
-        List<Booking> conflictingBookings = bookingRepository.findConflictingBookings(
-                roomTypeId, checkInDate, checkOutDate);
-        
-        // For simplicity, assume available if no conflicts
-        // In a real system, you'd check against actual room inventory
-        return conflictingBookings.isEmpty();
-        */
+        Booking updatedBooking = bookingRepository.save(booking);
+        roomAssignmentService.releaseRooms(bookingId);
+        roomAssignmentService.assignRooms(updatedBooking);
+        return updatedBooking;
     }
 
     public List<Booking> getHotelBookings(Long hotelId) {
-        return bookingRepository.findByHotelId(hotelId);
+        return shardedBookingRepository.findByHotelId(hotelId);
     }
 
     public List<Booking> getBookingsByStatus(BookingStatus status) {
-        return bookingRepository.findByStatus(status);
+        return shardedBookingRepository.findByStatus(status);
     }
 }
\ No newline at end of file
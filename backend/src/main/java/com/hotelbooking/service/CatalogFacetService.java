@@ -0,0 +1,237 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.repository.HotelRepository;
+import com.hotelbooking.repository.RoomTypeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Facet counts are computed in one pass over a columnar projection of the catalog (one int per
+// hotel per dimension plus the amenity bitsets), so a search costs no extra queries per facet value.
+@Service
+public class CatalogFacetService {
+
+    // Upper bounds (exclusive, INR) of the price bands, by the cheapest room type of each hotel
+    private static final int[] PRICE_BAND_LIMITS = {5000, 10000, 20000, 40000};
+    private static final String[] PRICE_BAND_LABELS = {"Under 5000", "5000-10000", "10000-20000", "20000-40000", "40000+"};
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private RoomTypeRepository roomTypeRepository;
+
+    @Autowired
+    private AmenityIndexService amenityIndexService;
+
+    private volatile FacetColumns columns;
+
+    private volatile boolean stale = true;
+
+    public void invalidate() {
+        stale = true;
+    }
+
+    public Map<String, Map<String, Integer>> computeFacets(String city, String country, Integer starRating,
+                                                          List<String> amenities) {
+        FacetColumns c = currentColumns();
+
+        boolean[] cityMatches = matchDictionary(c.cityNames, city);
+        boolean[] countryMatches = matchDictionary(c.countryNames, country);
+        BitSet required = requiredAmenities(c, amenities);
+        if (amenities != null && !amenities.isEmpty() && required == null) {
+            return emptyFacets();
+        }
+
+        int[] cityCounts = new int[c.cityNames.size()];
+        int[] starCounts = new int[6];
+        int[] priceCounts = new int[PRICE_BAND_LABELS.length];
+        int[] amenityCounts = new int[c.amenityNames.size()];
+        BitSet scratch = new BitSet();
+
+        for (int i = 0; i < c.size; i++) {
+            if (!cityMatches[c.cityIds[i]] || !countryMatches[c.countryIds[i]]) {
+                continue;
+            }
+            if (starRating != null && c.starRatings[i] < starRating) {
+                continue;
+            }
+            BitSet hotelAmenities = c.amenities[i];
+            if (required != null) {
+                scratch.clear();
+                scratch.or(required);
+                scratch.andNot(hotelAmenities);
+                if (!scratch.isEmpty()) {
+                    continue;
+                }
+            }
+
+            cityCounts[c.cityIds[i]]++;
+            starCounts[c.starRatings[i]]++;
+            if (c.priceBands[i] >= 0) {
+                priceCounts[c.priceBands[i]]++;
+            }
+            for (int code = hotelAmenities.nextSetBit(0); code >= 0 && code < amenityCounts.length;
+                 code = hotelAmenities.nextSetBit(code + 1)) {
+                amenityCounts[code]++;
+            }
+        }
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        facets.put("city", toCounts(c.cityNames, cityCounts));
+        Map<String, Integer> stars = new LinkedHashMap<>();
+        for (int rating = 5; rating >= 1; rating--) {
+            if (starCounts[rating] > 0) {
+                stars.put(String.valueOf(rating), starCounts[rating]);
+            }
+        }
+        facets.put("starRating", stars);
+        facets.put("priceBand", toCounts(List.of(PRICE_BAND_LABELS), priceCounts));
+        facets.put("amenities", toCounts(c.amenityNames, amenityCounts));
+        return facets;
+    }
+
+    private FacetColumns currentColumns() {
+        FacetColumns c = columns;
+        if (c != null && !stale) {
+            return c;
+        }
+
+        synchronized (this) {
+            if (columns == null || stale) {
+                // Clear first so a change racing with the rebuild marks the new snapshot stale again
+                stale = false;
+                columns = buildColumns();
+            }
+            return columns;
+        }
+    }
+
+    private FacetColumns buildColumns() {
+        List<Object[]> hotels = hotelRepository.findFacetProjection();
+
+        Map<Long, BigDecimal> minPrices = new HashMap<>();
+        for (Object[] row : roomTypeRepository.findMinBasePricePerHotel()) {
+            minPrices.put((Long) row[0], (BigDecimal) row[1]);
+        }
+
+        FacetColumns c = new FacetColumns(hotels.size(), amenityIndexService.getAmenityNames());
+        Map<String, Integer> cityIds = new HashMap<>();
+        Map<String, Integer> countryIds = new HashMap<>();
+
+        for (int i = 0; i < hotels.size(); i++) {
+            Object[] row = hotels.get(i);
+            Long hotelId = (Long) row[0];
+            c.cityIds[i] = dictionaryId(cityIds, c.cityNames, (String) row[1]);
+            c.countryIds[i] = dictionaryId(countryIds, c.countryNames, (String) row[2]);
+            Integer stars = (Integer) row[3];
+            c.starRatings[i] = stars != null && stars >= 1 && stars <= 5 ? stars : 0;
+            c.priceBands[i] = priceBand(minPrices.get(hotelId));
+            BitSet hotelAmenities = amenityIndexService.getHotelAmenities(hotelId);
+            c.amenities[i] = hotelAmenities != null ? hotelAmenities : new BitSet();
+        }
+        return c;
+    }
+
+    private int dictionaryId(Map<String, Integer> ids, List<String> names, String value) {
+        String name = value != null ? value : "";
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return id;
+    }
+
+    private int priceBand(BigDecimal minPrice) {
+        if (minPrice == null) {
+            return -1;
+        }
+        long price = minPrice.longValue();
+        for (int band = 0; band < PRICE_BAND_LIMITS.length; band++) {
+            if (price < PRICE_BAND_LIMITS[band]) {
+                return band;
+            }
+        }
+        return PRICE_BAND_LIMITS.length;
+    }
+
+    // Mirrors the repository's case-insensitive LIKE '%value%' filters, evaluated once per distinct value
+    private boolean[] matchDictionary(List<String> names, String filter) {
+        boolean[] matches = new boolean[names.size()];
+        String needle = filter != null ? filter.toLowerCase(Locale.ROOT) : null;
+        for (int id = 0; id < matches.length; id++) {
+            matches[id] = needle == null || names.get(id).toLowerCase(Locale.ROOT).contains(needle);
+        }
+        return matches;
+    }
+
+    private BitSet requiredAmenities(FacetColumns c, List<String> amenities) {
+        if (amenities == null || amenities.isEmpty()) {
+            return null;
+        }
+        BitSet required = new BitSet();
+        for (String amenity : amenities) {
+            Integer code = c.amenityCodes.get(AmenityIndexService.normalize(amenity));
+            if (code == null) {
+                return null;
+            }
+            required.set(code);
+        }
+        return required;
+    }
+
+    private Map<String, Integer> toCounts(List<String> names, int[] counts) {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] > 0) {
+                result.put(names.get(id), counts[id]);
+            }
+        }
+        return result;
+    }
+
+    private Map<String, Map<String, Integer>> emptyFacets() {
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        facets.put("city", Map.of());
+        facets.put("starRating", Map.of());
+        facets.put("priceBand", Map.of());
+        facets.put("amenities", Map.of());
+        return facets;
+    }
+
+    private static final class FacetColumns {
+        private final int size;
+        private final int[] cityIds;
+        private final int[] countryIds;
+        private final int[] starRatings;
+        private final int[] priceBands;
+        private final BitSet[] amenities;
+        private final List<String> cityNames = new ArrayList<>();
+        private final List<String> countryNames = new ArrayList<>();
+        private final List<String> amenityNames;
+        private final Map<String, Integer> amenityCodes = new HashMap<>();
+
+        private FacetColumns(int size, List<String> amenityNames) {
+            this.size = size;
+            this.cityIds = new int[size];
+            this.countryIds = new int[size];
+            this.starRatings = new int[size];
+            this.priceBands = new int[size];
+            this.amenities = new BitSet[size];
+            this.amenityNames = amenityNames;
+            for (int code = 0; code < amenityNames.size(); code++) {
+                amenityCodes.put(AmenityIndexService.normalize(amenityNames.get(code)), code);
+            }
+        }
+    }
+}
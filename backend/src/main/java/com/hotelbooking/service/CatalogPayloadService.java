@@ -0,0 +1,155 @@
+package com.hotelbooking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotelbooking.model.Hotel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class CatalogPayloadService {
+
+    private static final byte[] HOTELS_FIELD = "{\"hotels\":".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Serialized JSON per hotel, reused until the hotel's updatedAt moves
+    private final Map<Long, HotelFragment> hotelFragments = new ConcurrentHashMap<>();
+
+    private volatile CatalogPayload hotelListPayload;
+
+    public CatalogPayload getHotelListPayload(String version, Supplier<List<Hotel>> loader) {
+        CatalogPayload payload = hotelListPayload;
+        if (payload != null && payload.getVersion().equals(version)) {
+            return payload;
+        }
+
+        synchronized (this) {
+            payload = hotelListPayload;
+            if (payload == null || !payload.getVersion().equals(version)) {
+                byte[] json = writeHotelArray(loader.get());
+                payload = new CatalogPayload(version, json, gzip(json));
+                hotelListPayload = payload;
+            }
+        }
+        return payload;
+    }
+
+    public byte[] writeHotelPage(Page<Hotel> hotels) {
+        return writeHotelPage(hotels, Map.of());
+    }
+
+    public byte[] writeHotelPage(Page<Hotel> hotels, Map<String, ?> extraFields) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(HOTELS_FIELD);
+        out.writeBytes(writeHotelArray(hotels.getContent()));
+        String pageFields = ",\"currentPage\":" + hotels.getNumber() +
+                ",\"totalItems\":" + hotels.getTotalElements() +
+                ",\"totalPages\":" + hotels.getTotalPages();
+        out.writeBytes(pageFields.getBytes(StandardCharsets.UTF_8));
+        try {
+            for (Map.Entry<String, ?> field : extraFields.entrySet()) {
+                out.write(',');
+                out.writeBytes(objectMapper.writeValueAsBytes(field.getKey()));
+                out.write(':');
+                out.writeBytes(objectMapper.writeValueAsBytes(field.getValue()));
+            }
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize search response: " + e.getMessage());
+        }
+        out.write('}');
+        return out.toByteArray();
+    }
+
+    public void evictHotel(Long hotelId) {
+        hotelFragments.remove(hotelId);
+        hotelListPayload = null;
+    }
+
+    private byte[] writeHotelArray(List<Hotel> hotels) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(hotels.size() * 1024 + 2);
+        out.write('[');
+        for (int i = 0; i < hotels.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(hotelFragment(hotels.get(i)));
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    private byte[] hotelFragment(Hotel hotel) {
+        HotelFragment fragment = hotel.getId() != null ? hotelFragments.get(hotel.getId()) : null;
+        if (fragment != null && Objects.equals(fragment.updatedAt, hotel.getUpdatedAt())) {
+            return fragment.json;
+        }
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(hotel);
+            if (hotel.getId() != null) {
+                hotelFragments.put(hotel.getId(), new HotelFragment(hotel.getUpdatedAt(), json));
+            }
+            return json;
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize hotel " + hotel.getId() + ": " + e.getMessage());
+        }
+    }
+
+    private byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to compress catalog payload: " + e.getMessage());
+        }
+        return out.toByteArray();
+    }
+
+    private static final class HotelFragment {
+        private final LocalDateTime updatedAt;
+        private final byte[] json;
+
+        private HotelFragment(LocalDateTime updatedAt, byte[] json) {
+            this.updatedAt = updatedAt;
+            this.json = json;
+        }
+    }
+
+    public static final class CatalogPayload {
+        private final String version;
+        private final byte[] json;
+        private final byte[] gzippedJson;
+
+        private CatalogPayload(String version, byte[] json, byte[] gzippedJson) {
+            this.version = version;
+            this.json = json;
+            this.gzippedJson = gzippedJson;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzippedJson() {
+            return gzippedJson;
+        }
+    }
+}
@@ -18,6 +18,7 @@ import jakarta.mail.internet.MimeMessage;
 import reactor.core.publisher.Mono;
 import java.math.BigDecimal;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 @Service
 public class EmailService {
@@ -71,6 +72,28 @@ public class EmailService {
         }
     }
 
+    // One email for a whole group booking instead of one per room
+    public void sendGroupBookingConfirmationEmail(User user, Hotel hotel, List<Booking> bookings) {
+        try {
+            String htmlContent = createGroupBookingConfirmationHtml(user, hotel, bookings);
+            logEmailToConsole("GROUP BOOKING CONFIRMATION", user.getEmail(), htmlContent);
+
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+            helper.setFrom(fromEmail);
+            helper.setTo(user.getEmail());
+            helper.setSubject("🎉 Group Booking Confirmed - " + bookings.size() + " rooms at " + hotel.getName());
+            helper.setText(htmlContent, true);
+
+            mailSender.send(message);
+            logger.info("Group booking confirmation email sent to: {}", user.getEmail());
+
+        } catch (Exception e) {
+            logger.warn("📧 SMTP not configured, group booking email content logged to console: {}", e.getMessage());
+        }
+    }
+
     public void sendBookingCancellationEmail(User user, Booking booking, Hotel hotel, RoomType roomType) {
         try {
             MimeMessage message = mailSender.createMimeMessage();
@@ -233,6 +256,81 @@ public class EmailService {
         );
     }
 
+    private String createGroupBookingConfirmationHtml(User user, Hotel hotel, List<Booking> bookings) {
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd MMM yyyy");
+        StringBuilder rows = new StringBuilder();
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (Booking booking : bookings) {
+            rows.append(String.format("""
+                <tr><td>%s</td><td>%s</td><td>%s to %s</td><td>%d</td><td>₹%s</td></tr>
+                """,
+                booking.getConfirmationNumber(),
+                booking.getRoomType().getName(),
+                booking.getCheckInDate().format(dateFormatter),
+                booking.getCheckOutDate().format(dateFormatter),
+                booking.getGuestCount(),
+                booking.getTotalAmount()));
+            totalAmount = totalAmount.add(booking.getTotalAmount());
+        }
+
+        return String.format("""
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <meta charset="UTF-8">
+                <meta name="viewport" content="width=device-width, initial-scale=1.0">
+                <title>Group Booking Confirmation</title>
+                <style>
+                    body { font-family: 'Segoe UI', Tahoma, Geneva, Verdana, sans-serif; margin: 0; padding: 0; background-color: #f8fafc; }
+                    .container { max-width: 700px; margin: 0 auto; background-color: white; }
+                    .header { background: linear-gradient(135deg, #667eea 0%%, #764ba2 100%%); color: white; padding: 30px; text-align: center; }
+                    .header h1 { margin: 0; font-size: 28px; font-weight: 700; }
+                    .content { padding: 30px; }
+                    table { width: 100%%; border-collapse: collapse; margin: 20px 0; }
+                    th, td { padding: 10px; border-bottom: 1px solid #e5e7eb; text-align: left; font-size: 14px; }
+                    th { background: #f8fafc; color: #374151; }
+                    .total { font-size: 18px; font-weight: 700; color: #059669; text-align: right; }
+                    .footer { background: #1f2937; color: white; padding: 25px; text-align: center; }
+                </style>
+            </head>
+            <body>
+                <div class="container">
+                    <div class="header">
+                        <h1>🎉 Group Booking Confirmed!</h1>
+                        <p>%d rooms at %s</p>
+                    </div>
+
+                    <div class="content">
+                        <p>Dear %s,</p>
+                        <p>All rooms of your group booking are confirmed. Each room has its own confirmation number:</p>
+
+                        <table>
+                            <tr><th>Confirmation</th><th>Room Type</th><th>Dates</th><th>Guests</th><th>Amount</th></tr>
+                            %s
+                        </table>
+
+                        <p class="total">Total: ₹%s</p>
+
+                        <p>Best regards,<br>
+                        <strong>The LuxeStay Team</strong></p>
+                    </div>
+
+                    <div class="footer">
+                        <p><strong>LuxeStay - Premium Hotel Booking</strong></p>
+                        <p>📞 +91 1800-123-4567 | ✉️ support@luxestay.com</p>
+                    </div>
+                </div>
+            </body>
+            </html>
+            """,
+            bookings.size(),
+            hotel.getName(),
+            user.getFullName(),
+            rows,
+            totalAmount
+        );
+    }
+
     private String createBookingCancellationHtml(User user, Booking booking, Hotel hotel, RoomType roomType) {
         DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd MMM yyyy");
         
@@ -0,0 +1,159 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.dto.GroupBookingRequest;
+import com.hotelbooking.model.Booking;
+import com.hotelbooking.model.BookingStatus;
+import com.hotelbooking.model.ConfirmationNumberGenerator;
+import com.hotelbooking.model.Hotel;
+import com.hotelbooking.model.RoomType;
+import com.hotelbooking.model.User;
+import com.hotelbooking.repository.BookingRepository;
+import com.hotelbooking.repository.HotelRepository;
+import com.hotelbooking.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+// Books many rooms at one hotel in a single shard transaction: every room is reserved or none is.
+// The requested room types are locked in id order first, the same lock direct bookings and holds
+// take, so groups and single bookings sharing room types queue behind each other instead of
+// deadlocking or overselling. Rooms are then taken from the inventory rows request by request; the
+// first request that does not fit rolls the whole group back, which also returns the rooms already
+// taken. All bookings are written with one JDBC batch and the guest gets one confirmation email.
+@Service
+public class GroupBookingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupBookingService.class);
+
+    private static final String INSERT_BOOKING = "INSERT INTO bookings (user_id, hotel_id, room_type_id, " +
+            "confirmation_number, check_in_date, check_out_date, guest_count, total_amount, status, " +
+            "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OccupancyIndexService occupancyIndexService;
+
+    @Autowired
+    private RoomAssignmentService roomAssignmentService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${group-bookings.max-rooms:500}")
+    private int maxRooms;
+
+    public List<Booking> createGroupBooking(Long userId, Long hotelId, List<GroupBookingRequest.RoomRequest> rooms) {
+        List<Booking> bookings = shardRouter.inHotelShard(hotelId, () -> doCreateGroupBooking(userId, hotelId, rooms));
+
+        try {
+            Booking first = bookings.get(0);
+            emailService.sendGroupBookingConfirmationEmail(first.getUser(), first.getHotel(), bookings);
+        } catch (Exception e) {
+            // Log error but don't fail the booking
+            logger.warn("Failed to send group booking confirmation email: {}", e.getMessage());
+        }
+        return bookings;
+    }
+
+    private List<Booking> doCreateGroupBooking(Long userId, Long hotelId, List<GroupBookingRequest.RoomRequest> rooms) {
+        int roomCount = rooms.stream().mapToInt(GroupBookingRequest.RoomRequest::getQuantity).sum();
+        if (roomCount > maxRooms) {
+            throw new RuntimeException("A group booking can include at most " + maxRooms + " rooms");
+        }
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        Hotel hotel = hotelRepository.findById(hotelId)
+                .orElseThrow(() -> new RuntimeException("Hotel not found"));
+
+        TreeSet<Long> roomTypeIds = rooms.stream()
+                .map(GroupBookingRequest.RoomRequest::getRoomTypeId)
+                .collect(Collectors.toCollection(TreeSet::new));
+        Map<Long, RoomType> roomTypes = inventoryService.lockRoomTypes(hotelId, roomTypeIds);
+        if (roomTypes.size() != roomTypeIds.size()) {
+            throw new RuntimeException("Room type not found at this hotel");
+        }
+
+        // Validate the whole group before taking any room
+        for (GroupBookingRequest.RoomRequest room : rooms) {
+            if (!room.getCheckInDate().isBefore(room.getCheckOutDate()) || room.getCheckInDate().isBefore(LocalDate.now())) {
+                throw new RuntimeException("Invalid check-in or check-out date");
+            }
+            if (room.getGuestCount() > roomTypes.get(room.getRoomTypeId()).getCapacity()) {
+                throw new RuntimeException("Guest count exceeds room capacity");
+            }
+        }
+
+        // The same inventory check as direct bookings and holds, under locks already held. Rows are
+        // taken before the bookings are inserted, so seeding does not count the group's own stays.
+        List<GroupBookingRequest.RoomRequest> ordered = new ArrayList<>(rooms);
+        ordered.sort(Comparator.comparing(GroupBookingRequest.RoomRequest::getRoomTypeId)
+                .thenComparing(GroupBookingRequest.RoomRequest::getCheckInDate));
+        for (GroupBookingRequest.RoomRequest room : ordered) {
+            if (!inventoryService.tryReserve(roomTypes.get(room.getRoomTypeId()), room.getCheckInDate(),
+                    room.getCheckOutDate(), room.getQuantity())) {
+                throw new RuntimeException("Not enough " + roomTypes.get(room.getRoomTypeId()).getName()
+                        + " rooms available from " + room.getCheckInDate() + " to " + room.getCheckOutDate());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<String> confirmationNumbers = new ArrayList<>(roomCount);
+        List<Object[]> rows = new ArrayList<>(roomCount);
+        for (GroupBookingRequest.RoomRequest room : rooms) {
+            BigDecimal totalAmount = pricingService.quoteStay(room.getRoomTypeId(), room.getCheckInDate(), room.getCheckOutDate());
+            for (int i = 0; i < room.getQuantity(); i++) {
+                String confirmationNumber = ConfirmationNumberGenerator.next();
+                confirmationNumbers.add(confirmationNumber);
+                rows.add(new Object[] {userId, hotelId, room.getRoomTypeId(), confirmationNumber,
+                        room.getCheckInDate(), room.getCheckOutDate(), room.getGuestCount(), totalAmount,
+                        BookingStatus.CONFIRMED.name(), now, now});
+            }
+        }
+        new JdbcTemplate(dataSource).batchUpdate(INSERT_BOOKING, rows);
+
+        List<Booking> bookings = new ArrayList<>(bookingRepository.findWithDetailsByConfirmationNumberIn(confirmationNumbers));
+        bookings.sort(Comparator.comparing(Booking::getId));
+        for (Booking booking : bookings) {
+            roomAssignmentService.assignRooms(booking);
+            occupancyIndexService.recordStay(booking.getRoomType().getId(),
+                    booking.getCheckInDate(), booking.getCheckOutDate(), 1);
+        }
+        logger.info("Group booking for user {} at hotel {}: {} rooms", user.getId(), hotel.getId(), bookings.size());
+        return bookings;
+    }
+}
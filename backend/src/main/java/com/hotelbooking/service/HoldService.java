@@ -0,0 +1,265 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.model.*;
+import com.hotelbooking.repository.BookingRepository;
+import com.hotelbooking.repository.HotelRepository;
+import com.hotelbooking.repository.RoomTypeRepository;
+import com.hotelbooking.repository.ShardedBookingRepository;
+import com.hotelbooking.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Short-lived inventory holds for checkouts in progress. A hold is a PENDING booking with an
+// expiry time. It takes its room in the inventory rows immediately, and is refused when every
+// room of the type is already taken. A timing wheel releases it when the TTL runs out unless
+// payment confirmed it first. Open holds are re-armed from the database at startup. The wheel
+// only knows the holds of this node, so a periodic sweep also expires overdue holds from the
+// database, in case the node that placed them went down.
+@Service
+public class HoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HoldService.class);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ShardedBookingRepository shardedBookingRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private RoomTypeRepository roomTypeRepository;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private QuoteService quoteService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OccupancyIndexService occupancyIndexService;
+
+    @Autowired
+    private RoomAssignmentService roomAssignmentService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Value("${holds.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    @Value("${holds.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${holds.wheel-size:64}")
+    private int wheelSize;
+
+    @Value("${holds.expiry-threads:2}")
+    private int expiryThreads;
+
+    @Value("${holds.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    private TimingWheel expiryWheel;
+
+    private ExecutorService expiryExecutor;
+
+    @PostConstruct
+    void startExpiryWheel() {
+        // The wheel thread only hands due holds over; the database work runs on the expiry pool
+        expiryExecutor = Executors.newFixedThreadPool(Math.max(1, expiryThreads), runnable -> {
+            Thread thread = new Thread(runnable, "hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expiryWheel = new TimingWheel(tickMs, wheelSize, bookingId -> expiryExecutor.execute(() -> expireHold(bookingId)));
+        expiryWheel.start();
+    }
+
+    @PreDestroy
+    void stopExpiryWheel() {
+        expiryWheel.stop();
+        expiryExecutor.shutdown();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rearmHolds() {
+        List<Object[]> holds = shardedBookingRepository.findHoldExpiries();
+        for (Object[] hold : holds) {
+            expiryWheel.schedule((Long) hold[0], toEpochMilli((LocalDateTime) hold[1]));
+        }
+        if (!holds.isEmpty()) {
+            logger.info("Re-armed {} booking holds", holds.size());
+        }
+    }
+
+    // expireHold's conditional UPDATE makes a hold the wheel expires at the same time a no-op here
+    @Scheduled(fixedDelayString = "${holds.sweep-ms:60000}", initialDelayString = "${holds.sweep-ms:60000}")
+    public void sweepExpiredHolds() {
+        List<Long> overdue = shardedBookingRepository.findExpiredHoldIds(LocalDateTime.now(), sweepBatchSize);
+        for (Long bookingId : overdue) {
+            expiryExecutor.execute(() -> expireHold(bookingId));
+        }
+        if (!overdue.isEmpty()) {
+            logger.info("Sweeping {} overdue booking holds", overdue.size());
+        }
+    }
+
+    public Booking placeHold(Long userId, Long hotelId, Long roomTypeId,
+                             LocalDate checkInDate, LocalDate checkOutDate,
+                             Integer guestCount, String quoteToken) {
+        Booking hold = shardRouter.inHotelShard(hotelId, () -> doPlaceHold(userId, hotelId, roomTypeId,
+                checkInDate, checkOutDate, guestCount, quoteToken));
+        expiryWheel.schedule(hold.getId(), toEpochMilli(hold.getHoldExpiresAt()));
+        return hold;
+    }
+
+    private Booking doPlaceHold(Long userId, Long hotelId, Long roomTypeId,
+                                LocalDate checkInDate, LocalDate checkOutDate,
+                                Integer guestCount, String quoteToken) {
+        if (!checkInDate.isBefore(checkOutDate) || checkInDate.isBefore(LocalDate.now())) {
+            throw new RuntimeException("Invalid check-in or check-out date");
+        }
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        Hotel hotel = hotelRepository.findById(hotelId)
+                .orElseThrow(() -> new RuntimeException("Hotel not found"));
+        RoomType roomType = roomTypeRepository.findById(roomTypeId)
+                .orElseThrow(() -> new RuntimeException("Room type not found"));
+
+        if (guestCount > roomType.getCapacity()) {
+            throw new RuntimeException("Guest count exceeds room capacity");
+        }
+
+        // Same locked inventory check as direct bookings; capacity falls back to total_rooms
+        if (!inventoryService.tryReserve(roomType, checkInDate, checkOutDate, 1)) {
+            throw new RuntimeException("Room type not available for selected dates");
+        }
+
+        BigDecimal totalAmount;
+        if (quoteToken != null && !quoteToken.isBlank()) {
+            totalAmount = quoteService.verifyQuote(quoteToken, roomTypeId, checkInDate, checkOutDate, guestCount);
+        } else {
+            totalAmount = pricingService.quoteStay(roomTypeId, checkInDate, checkOutDate);
+        }
+
+        Booking hold = new Booking(user, hotel, roomType, checkInDate, checkOutDate, guestCount, totalAmount);
+        hold.setStatus(BookingStatus.PENDING);
+        hold.setHoldExpiresAt(LocalDateTime.now().plusMinutes(ttlMinutes));
+        hold = bookingRepository.save(hold);
+        occupancyIndexService.recordStay(roomTypeId, checkInDate, checkOutDate, 1);
+        return hold;
+    }
+
+    public Booking confirmHold(Long bookingId, Long userId, String paymentMethod) {
+        Booking booking = shardRouter.inShard(shardRouter.shardForId(bookingId), false,
+                () -> doConfirmHold(bookingId, userId, paymentMethod));
+        expiryWheel.cancel(bookingId);
+
+        try {
+            emailService.sendBookingConfirmationEmail(booking.getUser(), booking, booking.getHotel(), booking.getRoomType());
+        } catch (Exception e) {
+            // Log error but don't fail the booking
+            logger.warn("Failed to send booking confirmation email: {}", e.getMessage());
+        }
+        return booking;
+    }
+
+    private Booking doConfirmHold(Long bookingId, Long userId, String paymentMethod) {
+        if (!paymentService.validatePaymentMethod(paymentMethod)) {
+            throw new RuntimeException("Unsupported payment method");
+        }
+        Booking booking = bookingRepository.findWithDetailsById(bookingId)
+                .orElseThrow(() -> new RuntimeException("Booking not found"));
+        if (!booking.getUser().getId().equals(userId)) {
+            throw new RuntimeException("Unauthorized to confirm this booking");
+        }
+
+        if (bookingRepository.confirmHold(bookingId, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Hold has expired or is no longer pending");
+        }
+        booking = bookingRepository.findWithDetailsById(bookingId)
+                .orElseThrow(() -> new RuntimeException("Booking not found"));
+
+        // A failed payment rolls the confirmation back and the hold keeps running
+        paymentService.processPayment(booking, booking.getTotalAmount(), paymentMethod);
+        roomAssignmentService.assignRooms(booking);
+        return booking;
+    }
+
+    // Lets a guest who abandons checkout give the rooms back before the TTL runs out
+    public Booking releaseHold(Long bookingId, Long userId) {
+        Booking booking = shardRouter.inShard(shardRouter.shardForId(bookingId), false, () -> {
+            Booking hold = bookingRepository.findWithDetailsById(bookingId)
+                    .orElseThrow(() -> new RuntimeException("Booking not found"));
+            if (!hold.getUser().getId().equals(userId)) {
+                throw new RuntimeException("Unauthorized to release this booking");
+            }
+            if (bookingRepository.releaseHold(bookingId, LocalDateTime.now()) == 0) {
+                throw new RuntimeException("Booking is not an active hold");
+            }
+            returnInventory(hold);
+            return bookingRepository.findWithDetailsById(bookingId).orElse(hold);
+        });
+        expiryWheel.cancel(bookingId);
+        return booking;
+    }
+
+    private void expireHold(Long bookingId) {
+        try {
+            shardRouter.inShard(shardRouter.shardForId(bookingId), false, () -> {
+                Booking hold = bookingRepository.findWithDetailsById(bookingId).orElse(null);
+                // Confirmed, released or cancelled holds no longer match
+                if (hold != null && bookingRepository.expireHold(bookingId, LocalDateTime.now()) == 1) {
+                    returnInventory(hold);
+                    logger.debug("Hold {} expired", bookingId);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            logger.error("Failed to expire hold {}, retrying in a minute: {}", bookingId, e.getMessage());
+            expiryWheel.schedule(bookingId, System.currentTimeMillis() + 60_000);
+        }
+    }
+
+    private void returnInventory(Booking hold) {
+        Long roomTypeId = hold.getRoomType().getId();
+        inventoryService.release(roomTypeId, hold.getCheckInDate(), hold.getCheckOutDate(), 1);
+        occupancyIndexService.recordStay(roomTypeId, hold.getCheckInDate(), hold.getCheckOutDate(), -1);
+    }
+
+    private static long toEpochMilli(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
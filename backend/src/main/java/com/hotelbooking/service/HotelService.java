@@ -1,23 +1,37 @@
 package com.hotelbooking.service;
 
+import com.hotelbooking.config.CacheConfig;
 import com.hotelbooking.model.Booking;
 import com.hotelbooking.model.Hotel;
 import com.hotelbooking.model.RoomType;
-import com.hotelbooking.repository.BookingRepository;
 import com.hotelbooking.repository.HotelRepository;
 import com.hotelbooking.repository.RoomTypeRepository;
+import com.hotelbooking.repository.ShardedBookingRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class HotelService {
 
+    // Ids bound per IN list
+    private static final int MAX_IN_LIST_IDS = 1000;
+
     @Autowired
     private HotelRepository hotelRepository;
 
@@ -25,12 +39,90 @@ public class HotelService {
     private RoomTypeRepository roomTypeRepository;
 
     @Autowired
-    private BookingRepository bookingRepository;
+    private ShardedBookingRepository shardedBookingRepository;
+
+    @Autowired
+    private CatalogPayloadService catalogPayloadService;
+
+    @Autowired
+    private AmenityIndexService amenityIndexService;
+
+    @Autowired
+    private OccupancyIndexService occupancyIndexService;
 
+    @Autowired
+    private CatalogFacetService catalogFacetService;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Transactional(readOnly = true)
     public Page<Hotel> searchHotels(String city, String country, Integer starRating, Pageable pageable) {
         return hotelRepository.findHotelsWithFilters(city, country, starRating, pageable);
     }
 
+    @Transactional(readOnly = true)
+    public Page<Hotel> searchHotels(String city, String country, Integer starRating,
+                                    List<String> amenities, Pageable pageable) {
+        if (amenities == null || amenities.isEmpty()) {
+            return searchHotels(city, country, starRating, pageable);
+        }
+
+        // Amenity matching runs against the in-memory bitmap index; the database only sees an id list
+        List<Long> hotelIds = amenityIndexService.findHotelIdsWithAll(amenities);
+        if (hotelIds.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        if (hotelIds.size() <= MAX_IN_LIST_IDS) {
+            return hotelRepository.findHotelsWithFiltersAndIds(hotelIds, city, country, starRating, pageable);
+        }
+
+        // Too many ids for one bind list (PostgreSQL caps a statement at 32767 parameters): apply the
+        // filters chunk by chunk, then load only the requested page, in id order
+        List<Long> matchingIds = new ArrayList<>();
+        for (List<Long> chunk : chunks(hotelIds)) {
+            matchingIds.addAll(hotelRepository.findIdsWithFiltersAndIds(chunk, city, country, starRating));
+        }
+        Collections.sort(matchingIds);
+        List<Long> pageIds = matchingIds;
+        if (pageable.isPaged()) {
+            int from = (int) Math.min(pageable.getOffset(), matchingIds.size());
+            pageIds = matchingIds.subList(from, Math.min(from + pageable.getPageSize(), matchingIds.size()));
+        }
+
+        Map<Long, Hotel> hotelsById = new HashMap<>();
+        for (List<Long> chunk : chunks(pageIds)) {
+            for (Hotel hotel : hotelRepository.findAllById(chunk)) {
+                hotelsById.put(hotel.getId(), hotel);
+            }
+        }
+        List<Hotel> content = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            Hotel hotel = hotelsById.get(id);
+            if (hotel != null) {
+                content.add(hotel);
+            }
+        }
+        return new PageImpl<>(content, pageable, matchingIds.size());
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += MAX_IN_LIST_IDS) {
+            chunks.add(ids.subList(from, Math.min(from + MAX_IN_LIST_IDS, ids.size())));
+        }
+        return chunks;
+    }
+
+    public Map<String, Map<String, Integer>> getSearchFacets(String city, String country, Integer starRating,
+                                                            List<String> amenities) {
+        return catalogFacetService.computeFacets(city, country, starRating, amenities);
+    }
+
+    @Transactional(readOnly = true)
     public List<Hotel> searchHotelsByLocation(String city, String country) {
         if (city != null && country != null) {
             return hotelRepository.findHotelsWithFilters(city, country, null, Pageable.unpaged()).getContent();
@@ -43,15 +135,20 @@ public class HotelService {
         }
     }
 
+    @Transactional(readOnly = true)
     public Optional<Hotel> findById(Long id) {
         return hotelRepository.findById(id);
     }
 
+    // Cached results load from the primary (no readOnly), so a lagging replica cannot pin stale
+    // data in the cache after an eviction
+    @Cacheable(value = CacheConfig.HOTEL_CACHE, key = "#id")
     public Hotel getHotelById(Long id) {
         return hotelRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Hotel not found with id: " + id));
     }
 
+    @Transactional(readOnly = true)
     public List<RoomType> getAvailableRoomTypes(Long hotelId, LocalDate checkInDate, LocalDate checkOutDate, Integer guestCount) {
         List<RoomType> roomTypes = roomTypeRepository.findByHotelId(hotelId);
         
@@ -63,46 +160,114 @@ public class HotelService {
                     }
                     
                     // Check availability for the date range
-                    return isRoomTypeAvailable(roomType.getId(), checkInDate, checkOutDate);
+                    return isRoomTypeAvailable(hotelId, roomType, checkInDate, checkOutDate);
                 })
                 .toList();
     }
 
+    // Room types offering every listed amenity, matched against the in-memory index
+    public List<RoomType> filterRoomTypesByAmenities(List<RoomType> roomTypes, List<String> amenities) {
+        if (amenities == null || amenities.isEmpty()) {
+            return roomTypes;
+        }
+        return roomTypes.stream()
+                .filter(roomType -> amenityIndexService.roomTypeHasAll(roomType.getId(), amenities))
+                .toList();
+    }
+
+    @Cacheable(value = CacheConfig.ROOM_TYPES_CACHE, key = "#hotelId")
     public List<RoomType> getRoomTypesByHotel(Long hotelId) {
         return roomTypeRepository.findByHotelId(hotelId);
     }
 
-    private boolean isRoomTypeAvailable(Long roomTypeId, LocalDate checkInDate, LocalDate checkOutDate) {
+    // Search-time estimate only; booking re-checks room_availability under the room type lock
+    private boolean isRoomTypeAvailable(Long hotelId, RoomType roomType, LocalDate checkInDate, LocalDate checkOutDate) {
         if (checkInDate == null || checkOutDate == null) {
             return true; // If no dates specified, assume available
         }
         
-        // Check for conflicting bookings
-        List<Booking> conflictingBookings = bookingRepository.findConflictingBookings(roomTypeId, checkInDate, checkOutDate);
-        
-        // For simplicity, assume available if no conflicts
-        // In a real system, you'd check against actual room inventory
-        return conflictingBookings.isEmpty();
+        int capacity = inventoryService.capacity(roomType);
+        if (occupancyIndexService.covers(checkInDate, checkOutDate)) {
+            return occupancyIndexService.maxOccupancy(roomType.getId(), checkInDate, checkOutDate) < capacity;
+        }
+
+        // Outside the indexed window: every overlapping booking counts, even if they fall on different nights
+        List<Booking> conflictingBookings = shardedBookingRepository.findConflictingBookings(hotelId, roomType.getId(), checkInDate, checkOutDate);
+        return conflictingBookings.size() < capacity;
     }
 
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.HOTELS_CACHE, allEntries = true),
+            @CacheEvict(value = CacheConfig.HOTEL_CACHE, key = "#hotel.id", condition = "#hotel.id != null")
+    })
     public Hotel saveHotel(Hotel hotel) {
-        return hotelRepository.save(hotel);
+        Hotel savedHotel = hotelRepository.save(hotel);
+        amenityIndexService.indexHotel(savedHotel);
+        catalogFacetService.invalidate();
+        return savedHotel;
     }
 
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.HOTELS_CACHE, allEntries = true),
+            @CacheEvict(value = CacheConfig.HOTEL_CACHE, key = "#id"),
+            @CacheEvict(value = CacheConfig.ROOM_TYPES_CACHE, key = "#id")
+    })
     public void deleteHotel(Long id) {
         hotelRepository.deleteById(id);
+        catalogPayloadService.evictHotel(id);
+        amenityIndexService.removeHotel(id);
+        catalogFacetService.invalidate();
     }
 
+    @Cacheable(value = CacheConfig.HOTELS_CACHE, key = "'all'")
     public List<Hotel> getAllHotels() {
         return hotelRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public List<Hotel> findHotelsByName(String name) {
         return hotelRepository.findByNameContaining(name);
     }
 
+    // ===== CONDITIONAL REQUEST VALIDATORS =====
+
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> getHotelLastModified(Long id) {
+        return hotelRepository.findUpdatedAtById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public LocalDateTime getCatalogLastModified() {
+        return hotelRepository.findMaxUpdatedAt();
+    }
+
+    @Transactional(readOnly = true)
+    public long getHotelCount() {
+        return hotelRepository.count();
+    }
+
+    @Transactional(readOnly = true)
+    public LocalDateTime getRoomTypesLastModified(Long hotelId) {
+        // Room type payloads embed their hotel, so either side changing invalidates the list
+        LocalDateTime roomTypesUpdatedAt = roomTypeRepository.findMaxUpdatedAtByHotelId(hotelId);
+        LocalDateTime hotelUpdatedAt = hotelRepository.findUpdatedAtById(hotelId).orElse(null);
+        if (roomTypesUpdatedAt == null) {
+            return hotelUpdatedAt;
+        }
+        if (hotelUpdatedAt == null) {
+            return roomTypesUpdatedAt;
+        }
+        return roomTypesUpdatedAt.isAfter(hotelUpdatedAt) ? roomTypesUpdatedAt : hotelUpdatedAt;
+    }
+
+    @Transactional(readOnly = true)
+    public long getRoomTypeCount(Long hotelId) {
+        return roomTypeRepository.countByHotelId(hotelId);
+    }
+
     // ===== ADMIN METHODS =====
 
+    @CacheEvict(value = CacheConfig.HOTELS_CACHE, allEntries = true)
     public Hotel createHotel(Hotel hotel) {
         // Validate required fields
         if (hotel.getName() == null || hotel.getName().trim().isEmpty()) {
@@ -115,9 +280,18 @@ public class HotelService {
             throw new RuntimeException("Hotel country is required");
         }
 
-        return hotelRepository.save(hotel);
+        Hotel savedHotel = hotelRepository.save(hotel);
+        amenityIndexService.indexHotel(savedHotel);
+        catalogFacetService.invalidate();
+        return savedHotel;
     }
 
+    // Room type payloads embed their hotel, so the hotel's room type list goes too
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.HOTELS_CACHE, allEntries = true),
+            @CacheEvict(value = CacheConfig.HOTEL_CACHE, key = "#id"),
+            @CacheEvict(value = CacheConfig.ROOM_TYPES_CACHE, key = "#id")
+    })
     public Hotel updateHotel(Long id, Hotel hotelDetails) {
         Hotel hotel = getHotelById(id);
         
@@ -150,9 +324,13 @@ public class HotelService {
             hotel.setAmenities(hotelDetails.getAmenities());
         }
 
-        return hotelRepository.save(hotel);
+        Hotel savedHotel = hotelRepository.save(hotel);
+        amenityIndexService.indexHotel(savedHotel);
+        catalogFacetService.invalidate();
+        return savedHotel;
     }
 
+    @CacheEvict(value = CacheConfig.ROOM_TYPES_CACHE, key = "#hotelId")
     public RoomType createRoomType(Long hotelId, RoomType roomType) {
         Hotel hotel = getHotelById(hotelId);
         roomType.setHotel(hotel);
@@ -168,9 +346,13 @@ public class HotelService {
             throw new RuntimeException("Base price must be greater than 0");
         }
 
-        return roomTypeRepository.save(roomType);
+        RoomType savedRoomType = roomTypeRepository.save(roomType);
+        amenityIndexService.indexRoomType(savedRoomType);
+        catalogFacetService.invalidate();
+        return savedRoomType;
     }
 
+    @CacheEvict(value = CacheConfig.ROOM_TYPES_CACHE, key = "#result.hotel.id")
     public RoomType updateRoomType(Long roomTypeId, RoomType roomTypeDetails) {
         RoomType roomType = roomTypeRepository.findById(roomTypeId)
                 .orElseThrow(() -> new RuntimeException("Room type not found with id: " + roomTypeId));
@@ -191,16 +373,33 @@ public class HotelService {
         if (roomTypeDetails.getAmenities() != null) {
             roomType.setAmenities(roomTypeDetails.getAmenities());
         }
+        int roomsAdded = 0;
+        if (roomTypeDetails.getTotalRooms() != null) {
+            if (roomTypeDetails.getTotalRooms() < 0) {
+                throw new RuntimeException("Total rooms cannot be negative");
+            }
+            roomsAdded = roomTypeDetails.getTotalRooms() - roomType.getTotalRooms();
+            roomType.setTotalRooms(roomTypeDetails.getTotalRooms());
+        }
 
-        return roomTypeRepository.save(roomType);
+        RoomType savedRoomType = roomTypeRepository.save(roomType);
+        // Only once the new price is committed: a quote rebuilding the calendar earlier would read the old one
+        if (roomTypeDetails.getBasePrice() != null) {
+            pricingService.invalidate(roomTypeId);
+        }
+        inventoryService.adjustTotalRooms(savedRoomType, roomsAdded);
+        amenityIndexService.indexRoomType(savedRoomType);
+        catalogFacetService.invalidate();
+        return savedRoomType;
     }
 
+    @CacheEvict(value = CacheConfig.ROOM_TYPES_CACHE, allEntries = true)
     public void deleteRoomType(Long roomTypeId) {
         RoomType roomType = roomTypeRepository.findById(roomTypeId)
                 .orElseThrow(() -> new RuntimeException("Room type not found with id: " + roomTypeId));
         
         // Check if there are any active bookings for this room type
-        List<Booking> activeBookings = bookingRepository.findByRoomTypeIdAndStatusIn(
+        List<Booking> activeBookings = shardedBookingRepository.findByRoomTypeIdAndStatusIn(roomType.getHotel().getId(),
                 roomTypeId, List.of(com.hotelbooking.model.BookingStatus.CONFIRMED, com.hotelbooking.model.BookingStatus.PENDING));
         
         if (!activeBookings.isEmpty()) {
@@ -208,5 +407,9 @@ public class HotelService {
         }
 
         roomTypeRepository.delete(roomType);
+        amenityIndexService.removeRoomType(roomTypeId);
+        occupancyIndexService.removeRoomType(roomTypeId);
+        pricingService.invalidate(roomTypeId);
+        catalogFacetService.invalidate();
     }
 }
\ No newline at end of file
@@ -0,0 +1,150 @@
+package com.hotelbooking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Replays the result of a POST that is retried with the same Idempotency-Key instead of running
+// it again. Keys are scoped per operation and user, and remember a SHA-256 fingerprint of the
+// request, so reusing a key for a different request is refused. A duplicate that arrives while the
+// first request is still running waits for its result. Successful results are kept for ttl-minutes;
+// failures are forgotten so the client can retry. A request still running is held outside the
+// bounded store until it finishes, so eviction can never let its duplicate run the work again. The
+// store is in memory on each node.
+@Service
+public class IdempotencyService {
+
+    private record Execution(String fingerprint, CompletableFuture<Object> result) {}
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${idempotency.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${idempotency.max-keys:100000}")
+    private long maxKeys;
+
+    @Value("${idempotency.wait-seconds:30}")
+    private long waitSeconds;
+
+    // Requests still running; an entry moves to completed once its result is in
+    private final Map<String, Execution> pending = new ConcurrentHashMap<>();
+
+    private Cache<String, Execution> completed;
+
+    // Runs when a duplicate starts waiting for the original request
+    private Runnable onWait = () -> {};
+
+    @PostConstruct
+    void initStore() {
+        completed = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .maximumSize(maxKeys)
+                .build();
+    }
+
+    // Without a key the work simply runs
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, Long userId, String idempotencyKey, Object request, Supplier<T> work) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return work.get();
+        }
+
+        String storeKey = operation + ":" + userId + ":" + idempotencyKey;
+        Execution execution = new Execution(fingerprint(request), new CompletableFuture<>());
+        Execution done = completed.getIfPresent(storeKey);
+        if (done != null) {
+            return (T) replay(done, execution);
+        }
+        Execution existing = pending.putIfAbsent(storeKey, execution);
+        if (existing != null) {
+            return (T) replay(existing, execution);
+        }
+        // The original may have finished between the two lookups; anyone who found this entry
+        // meanwhile gets its result
+        done = completed.getIfPresent(storeKey);
+        if (done != null) {
+            pending.remove(storeKey, execution);
+            try {
+                Object result = replay(done, execution);
+                execution.result().complete(result);
+                return (T) result;
+            } catch (RuntimeException e) {
+                execution.result().completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            T result = work.get();
+            // Stored before it stops being pending, so a duplicate always finds one or the other
+            execution.result().complete(result);
+            completed.put(storeKey, execution);
+            pending.remove(storeKey, execution);
+            return result;
+        } catch (Throwable e) {
+            // Errors too, so the entry is never left pending: waiting duplicates see the same
+            // failure and later retries run again
+            pending.remove(storeKey, execution);
+            execution.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Object replay(Execution original, Execution duplicate) {
+        if (!original.fingerprint().equals(duplicate.fingerprint())) {
+            throw new RuntimeException("Idempotency key was already used for a different request");
+        }
+        if (!original.result().isDone()) {
+            onWait.run();
+        }
+        return awaitResult(original);
+    }
+
+    private Object awaitResult(Execution execution) {
+        try {
+            return execution.result().get(waitSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("A request with this idempotency key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the original request");
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] body = objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Could not fingerprint request: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.model.RoomAvailability;
+import com.hotelbooking.model.RoomType;
+import com.hotelbooking.repository.BookingRepository;
+import com.hotelbooking.repository.RoomAvailabilityRepository;
+import com.hotelbooking.repository.RoomTypeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Rooms left per room type and night live in room_availability on the hotel's shard and change in
+// the same transaction as the booking that takes or returns them, so a rollback or a restart never
+// loses or double-counts a room. A night is seeded the first time it is sold: capacity minus the
+// stays already booked on it, never below zero. Capacity is the number of assignable Room rows, or
+// total_rooms as committed on the hotel's shard for a property that has not set up its rooms. Taking rooms locks the room type row first, so seeding
+// and the availability check cannot interleave with another booking on any node.
+@Service
+public class InventoryService {
+
+    // Booking id that matches no booking, for seeding without leaving one out
+    private static final long NO_BOOKING = 0L;
+
+    private static final LocalDate LAST_NIGHT = LocalDate.of(9999, 12, 31);
+
+    @Autowired
+    private RoomAvailabilityRepository roomAvailabilityRepository;
+
+    @Autowired
+    private RoomTypeRepository roomTypeRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RoomAssignmentService roomAssignmentService;
+
+    @Autowired
+    private RepricingService repricingService;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    // Locks in id order; callers taking several room types lock them all up front
+    public Map<Long, RoomType> lockRoomTypes(Long hotelId, Collection<Long> roomTypeIds) {
+        Map<Long, RoomType> locked = new LinkedHashMap<>();
+        for (RoomType roomType : roomTypeRepository.lockByHotelIdAndIdIn(hotelId, new TreeSet<>(roomTypeIds))) {
+            locked.put(roomType.getId(), roomType);
+        }
+        return locked;
+    }
+
+    public boolean tryReserve(RoomType roomType, LocalDate checkInDate, LocalDate checkOutDate, int rooms) {
+        return tryReserve(roomType, checkInDate, checkOutDate, rooms, null);
+    }
+
+    // Takes rooms on every night of [checkIn, checkOut) if each night has enough left, otherwise
+    // changes nothing and returns false. movingBookingId is a booking whose current stay was already
+    // released in this transaction (date changes), so seeding must not count it again.
+    public boolean tryReserve(RoomType roomType, LocalDate checkInDate, LocalDate checkOutDate, int rooms,
+                              Long movingBookingId) {
+        if (!checkInDate.isBefore(checkOutDate)) {
+            return false;
+        }
+        Long roomTypeId = roomType.getId();
+        lockRoomTypes(roomType.getHotel().getId(), List.of(roomTypeId));
+
+        Map<LocalDate, Integer> remaining = remaining(roomTypeId, checkInDate, checkOutDate);
+        seedMissingNights(roomType, checkInDate, checkOutDate, remaining,
+                movingBookingId != null ? movingBookingId : NO_BOOKING);
+        for (int left : remaining.values()) {
+            if (left < rooms) {
+                return false;
+            }
+        }
+
+        int nights = (int) ChronoUnit.DAYS.between(checkInDate, checkOutDate);
+        int taken = roomAvailabilityRepository.takeRooms(roomTypeId, checkInDate, checkOutDate, rooms, LocalDateTime.now());
+        if (taken != nights) {
+            // Only possible if a row was changed without the room type lock
+            throw new RuntimeException("Inventory changed while booking, please try again");
+        }
+        repricingService.recordInventoryChange(roomTypeId, checkInDate, checkOutDate);
+        return true;
+    }
+
+    // Gives rooms back on the nights that have a row. A night without one has never been sold
+    // through this service; it is seeded later from the bookings, which no longer count this stay.
+    public void release(Long roomTypeId, LocalDate checkInDate, LocalDate checkOutDate, int rooms) {
+        if (!checkInDate.isBefore(checkOutDate)) {
+            return;
+        }
+        roomAvailabilityRepository.returnRooms(roomTypeId, checkInDate, checkOutDate, rooms, LocalDateTime.now());
+        repricingService.recordInventoryChange(roomTypeId, checkInDate, checkOutDate);
+    }
+
+    // total_rooms changed on shard 0 (committed is the saved row): nights already seeded from it move
+    // by the same amount, and the hotel's shard gets the new total in the same transaction, so a night
+    // seeded there afterwards does not read a replicated copy that is not caught up yet. Types with
+    // Room rows are sized by those instead, so their rows stay as they are.
+    public void adjustTotalRooms(RoomType committed, int roomsAdded) {
+        if (roomsAdded == 0 || roomAssignmentService.countAssignableRooms(committed.getId()) > 0) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        shardRouter.inHotelShard(committed.getHotel().getId(), () -> {
+            lockRoomTypes(committed.getHotel().getId(), List.of(committed.getId()));
+            roomTypeRepository.updateTotalRooms(committed.getId(), committed.getTotalRooms(), committed.getUpdatedAt());
+            return roomAvailabilityRepository.shiftCapacity(committed.getId(), today, LAST_NIGHT, roomsAdded,
+                    LocalDateTime.now());
+        });
+        pricingService.invalidate(committed.getId());
+    }
+
+    // Rooms the type has when nothing is booked
+    public int capacity(RoomType roomType) {
+        int assignable = roomAssignmentService.countAssignableRooms(roomType.getId());
+        return assignable > 0 ? assignable : roomType.getTotalRooms();
+    }
+
+    private Map<LocalDate, Integer> remaining(Long roomTypeId, LocalDate checkInDate, LocalDate checkOutDate) {
+        Map<LocalDate, Integer> remaining = new LinkedHashMap<>();
+        for (Object[] row : roomAvailabilityRepository.findRemaining(roomTypeId, checkInDate, checkOutDate)) {
+            remaining.put((LocalDate) row[0], (Integer) row[1]);
+        }
+        return remaining;
+    }
+
+    // Adds a row for every night of [checkIn, checkOut) missing from remaining, and its count to remaining
+    private void seedMissingNights(RoomType roomType, LocalDate checkInDate, LocalDate checkOutDate,
+                                   Map<LocalDate, Integer> remaining, long excludedBookingId) {
+        Set<LocalDate> missing = new HashSet<>();
+        for (LocalDate night = checkInDate; night.isBefore(checkOutDate); night = night.plusDays(1)) {
+            if (!remaining.containsKey(night)) {
+                missing.add(night);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        Map<LocalDate, Integer> booked = new LinkedHashMap<>();
+        for (Object[] stay : bookingRepository.findStaysOverlapping(roomType.getId(), checkInDate, checkOutDate,
+                excludedBookingId)) {
+            for (LocalDate night = (LocalDate) stay[0]; night.isBefore((LocalDate) stay[1]); night = night.plusDays(1)) {
+                if (missing.contains(night)) {
+                    booked.merge(night, 1, Integer::sum);
+                }
+            }
+        }
+
+        // Read under the room type lock, not from the entity the caller loaded
+        int assignable = roomAssignmentService.countAssignableRooms(roomType.getId());
+        int capacity = assignable > 0 ? assignable : roomTypeRepository.findTotalRoomsById(roomType.getId());
+        List<RoomAvailability> rows = new ArrayList<>();
+        for (LocalDate night : new TreeSet<>(missing)) {
+            // An overbooked night starts at zero, like one whose capacity was reduced
+            int left = Math.max(0, capacity - booked.getOrDefault(night, 0));
+            rows.add(new RoomAvailability(roomType, night, left, null));
+            remaining.put(night, left);
+        }
+        roomAvailabilityRepository.saveAll(rows);
+    }
+}
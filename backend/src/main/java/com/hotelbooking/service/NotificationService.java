@@ -1,57 +1,154 @@
 package com.hotelbooking.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hotelbooking.config.LatestValueOutboundInterceptor;
+import com.hotelbooking.dto.HotelEvent;
+import com.hotelbooking.dto.HotelEventBatch;
+import com.hotelbooking.model.Hotel;
+import com.hotelbooking.repository.HotelRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
 
-import java.util.HashMap;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
+// Events are published to per-hotel (/topic/hotels/{id}) and per-city (/topic/cities/{city})
+// destinations so only interested clients receive them. Events for the same hotel are held for a
+// short coalescing window and sent as one message, with later events replacing earlier ones of
+// the same kind (e.g. two price changes for the same room and night).
 @Service
 public class NotificationService {
 
+    private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
+
+    public static final String HOTEL_TOPIC_PREFIX = "/topic/hotels/";
+    public static final String CITY_TOPIC_PREFIX = "/topic/cities/";
+
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${notifications.city-cache-seconds:600}")
+    private long cityCacheSeconds;
+
+    // Only touched inside compute/remove on this map, so a batch taken by flushPendingEvents can no
+    // longer receive events
+    private final Map<Long, Map<String, HotelEvent>> pendingEvents = new ConcurrentHashMap<>();
+
+    // City topic per hotel; dropped when this node saves the hotel, expired for edits on other nodes
+    private Cache<Long, String> cityByHotel;
+
+    @PostConstruct
+    void initCityCache() {
+        cityByHotel = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(cityCacheSeconds))
+                .build();
+    }
+
     public void notifyHotelUpdate(Long hotelId, String updateType) {
-        Map<String, Object> notification = new HashMap<>();
-        notification.put("type", "HOTEL_UPDATE");
-        notification.put("hotelId", hotelId);
-        notification.put("updateType", updateType);
-        notification.put("timestamp", System.currentTimeMillis());
-        
-        messagingTemplate.convertAndSend("/topic/hotel-updates", notification);
+        cityByHotel.invalidate(hotelId);
+        enqueue(new HotelEvent.HotelUpdated(hotelId, updateType, System.currentTimeMillis()));
     }
 
     public void notifyPriceUpdate(Long hotelId, String roomType, Double newPrice) {
-        Map<String, Object> notification = new HashMap<>();
-        notification.put("type", "PRICE_UPDATE");
-        notification.put("hotelId", hotelId);
-        notification.put("roomType", roomType);
-        notification.put("newPrice", newPrice);
-        notification.put("timestamp", System.currentTimeMillis());
-        
-        messagingTemplate.convertAndSend("/topic/price-updates", notification);
+        enqueue(new HotelEvent.PriceUpdated(hotelId, roomType, newPrice, null, System.currentTimeMillis()));
+    }
+
+    public void notifyPriceUpdate(Long hotelId, String roomType, Double newPrice, LocalDate date) {
+        enqueue(new HotelEvent.PriceUpdated(hotelId, roomType, newPrice, date, System.currentTimeMillis()));
     }
 
     public void notifyImageUpdate(Long hotelId, String newImageUrl) {
-        Map<String, Object> notification = new HashMap<>();
-        notification.put("type", "IMAGE_UPDATE");
-        notification.put("hotelId", hotelId);
-        notification.put("newImageUrl", newImageUrl);
-        notification.put("timestamp", System.currentTimeMillis());
-        
-        messagingTemplate.convertAndSend("/topic/image-updates", notification);
+        enqueue(new HotelEvent.ImageUpdated(hotelId, newImageUrl, System.currentTimeMillis()));
     }
 
     public void notifyAvailabilityUpdate(Long hotelId, String roomType, Boolean available) {
-        Map<String, Object> notification = new HashMap<>();
-        notification.put("type", "AVAILABILITY_UPDATE");
-        notification.put("hotelId", hotelId);
-        notification.put("roomType", roomType);
-        notification.put("available", available);
-        notification.put("timestamp", System.currentTimeMillis());
-        
-        messagingTemplate.convertAndSend("/topic/availability-updates", notification);
-    }
-}
\ No newline at end of file
+        enqueue(new HotelEvent.AvailabilityUpdated(hotelId, roomType, available, System.currentTimeMillis()));
+    }
+
+    public void notifyRoomAvailability(Long hotelId, Long roomTypeId, String roomType, List<HotelEvent.RoomsRange> ranges) {
+        enqueue(new HotelEvent.RoomAvailabilityChanged(hotelId, roomTypeId, roomType, List.copyOf(ranges),
+                System.currentTimeMillis()));
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.coalesce-window-ms:250}")
+    public void flushPendingEvents() {
+        for (Long hotelId : new ArrayList<>(pendingEvents.keySet())) {
+            Map<String, HotelEvent> events = pendingEvents.remove(hotelId);
+            if (events == null || events.isEmpty()) {
+                continue;
+            }
+
+            HotelEventBatch batch = HotelEventBatch.of(hotelId, new ArrayList<>(events.values()));
+
+            byte[] payload;
+            try {
+                payload = objectMapper.writeValueAsBytes(batch);
+            } catch (JsonProcessingException e) {
+                logger.error("Failed to serialize events for hotel {}: {}", hotelId, e.getMessage());
+                continue;
+            }
+
+            // Keys name the events in the batch, so a slow client's queue can skip superseded ones
+            String coalesceKeys = batch.events().stream()
+                    .map(event -> event.hotelId() + ":" + event.coalesceKey())
+                    .collect(Collectors.joining(LatestValueOutboundInterceptor.KEY_SEPARATOR));
+
+            // The encoded bytes are shared by every destination and every subscriber of them
+            send(HOTEL_TOPIC_PREFIX + hotelId, payload, coalesceKeys);
+
+            String city = cityByHotel.get(hotelId, id -> hotelRepository.findById(id).map(Hotel::getCity).orElse(null));
+            if (city != null) {
+                send(CITY_TOPIC_PREFIX + citySlug(city), payload, coalesceKeys);
+            }
+        }
+    }
+
+    private void enqueue(HotelEvent event) {
+        pendingEvents.compute(event.hotelId(), (id, events) -> {
+            Map<String, HotelEvent> next = events != null ? events : new LinkedHashMap<>();
+            // Drop the older value so the latest event keeps its place at the end of the batch
+            next.remove(event.coalesceKey());
+            next.put(event.coalesceKey(), event);
+            return next;
+        });
+    }
+
+    private void send(String destination, byte[] payload, String coalesceKeys) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setNativeHeader(LatestValueOutboundInterceptor.COALESCE_KEYS_HEADER, coalesceKeys);
+        accessor.setLeaveMutable(true);
+        messagingTemplate.send(destination, MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+    }
+
+    public static String citySlug(String city) {
+        return city.trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-");
+    }
+}
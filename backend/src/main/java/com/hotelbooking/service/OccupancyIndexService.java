@@ -0,0 +1,189 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.repository.ShardedBookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory occupancy per room type: a segment tree over nights with range add and range max, so
+// "most rooms taken on any night of [checkIn, checkOut)" is O(log n) instead of a range-overlap
+// scan over bookings. Stays are half-open, so a check-out and a check-in on the same day do not
+// overlap. The index only answers search-time availability; bookings are checked against
+// room_availability under the room type lock. It is built from the active bookings on every shard
+// before the server accepts requests, kept current by bookings committed on this node, and rebuilt
+// periodically so bookings made on other nodes show up and the window moves forward with the date.
+@Service
+public class OccupancyIndexService implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyIndexService.class);
+
+    @Autowired
+    private ShardedBookingRepository shardedBookingRepository;
+
+    @Value("${occupancy.horizon-days:730}")
+    private int horizonDays;
+
+    // Replaced whole by each rebuild; null until the first build succeeds
+    private volatile Snapshot snapshot;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // Availability checks fall back to the booking query until a rebuild succeeds
+            logger.error("Failed to build the occupancy index: {}", e.getMessage());
+        }
+    }
+
+    // Searches keep using the previous snapshot while the next one is built. A stay committed on this
+    // node between the booking query and the swap may be missing until the following rebuild.
+    @Scheduled(fixedDelayString = "${occupancy.rebuild-ms:300000}", initialDelayString = "${occupancy.rebuild-ms:300000}")
+    public void rebuild() {
+        LocalDate today = LocalDate.now();
+        Snapshot next = new Snapshot(today.toEpochDay(), Integer.highestOneBit(Math.max(1, horizonDays - 1)) << 1);
+
+        List<Object[]> stays = shardedBookingRepository.findActiveStaysEndingAfter(today);
+        for (Object[] stay : stays) {
+            next.addStay((Long) stay[0], (LocalDate) stay[1], (LocalDate) stay[2], 1);
+        }
+        snapshot = next;
+        logger.debug("Occupancy index built from {} active bookings over {} room types", stays.size(), next.trees.size());
+    }
+
+    // Whether [checkIn, checkOut) lies inside the indexed window; callers query the database otherwise
+    public boolean covers(LocalDate checkInDate, LocalDate checkOutDate) {
+        Snapshot current = snapshot;
+        return current != null
+                && checkInDate.toEpochDay() >= current.baseEpochDay
+                && checkOutDate.toEpochDay() - current.baseEpochDay <= current.nights;
+    }
+
+    // Highest number of CONFIRMED/PENDING bookings on any night of [checkIn, checkOut)
+    public int maxOccupancy(Long roomTypeId, LocalDate checkInDate, LocalDate checkOutDate) {
+        Snapshot current = snapshot;
+        OccupancyTree tree = current != null ? current.trees.get(roomTypeId) : null;
+        if (tree == null || !checkInDate.isBefore(checkOutDate)) {
+            return 0;
+        }
+        return tree.max(current.offset(checkInDate), current.offset(checkOutDate));
+    }
+
+    // roomsDelta is +1 when a stay is booked and -1 when it is released
+    public void recordStay(Long roomTypeId, LocalDate checkInDate, LocalDate checkOutDate, int roomsDelta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Rolled-back bookings never reach the index
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addStay(roomTypeId, checkInDate, checkOutDate, roomsDelta);
+                }
+            });
+        } else {
+            addStay(roomTypeId, checkInDate, checkOutDate, roomsDelta);
+        }
+    }
+
+    public void removeRoomType(Long roomTypeId) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            current.trees.remove(roomTypeId);
+        }
+    }
+
+    private void addStay(Long roomTypeId, LocalDate checkInDate, LocalDate checkOutDate, int roomsDelta) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            current.addStay(roomTypeId, checkInDate, checkOutDate, roomsDelta);
+        }
+    }
+
+    // The trees for one build, all covering nights [baseEpochDay, baseEpochDay + nights)
+    private static final class Snapshot {
+
+        private final long baseEpochDay;
+        // A power of two
+        private final int nights;
+        private final Map<Long, OccupancyTree> trees = new ConcurrentHashMap<>();
+
+        Snapshot(long baseEpochDay, int nights) {
+            this.baseEpochDay = baseEpochDay;
+            this.nights = nights;
+        }
+
+        void addStay(Long roomTypeId, LocalDate checkInDate, LocalDate checkOutDate, int roomsDelta) {
+            // Past nights and nights beyond the window are not tracked
+            int from = Math.max(0, offset(checkInDate));
+            int to = Math.min(nights, offset(checkOutDate));
+            if (from >= to) {
+                return;
+            }
+            trees.computeIfAbsent(roomTypeId, id -> new OccupancyTree(nights)).add(from, to, roomsDelta);
+        }
+
+        int offset(LocalDate date) {
+            return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, date.toEpochDay() - baseEpochDay));
+        }
+    }
+
+    // Range-add/range-max segment tree. Each node keeps the max of its subtree plus its own pending
+    // add; adds covering a whole node stay there instead of being pushed down to the children.
+    private static final class OccupancyTree {
+
+        private final int size;
+        private final int[] max;
+        private final int[] pending;
+
+        OccupancyTree(int size) {
+            this.size = size;
+            this.max = new int[2 * size];
+            this.pending = new int[2 * size];
+        }
+
+        synchronized void add(int from, int to, int delta) {
+            add(1, 0, size, from, to, delta);
+        }
+
+        synchronized int max(int from, int to) {
+            return Math.max(0, max(1, 0, size, from, to));
+        }
+
+        private void add(int node, int lo, int hi, int from, int to, int delta) {
+            if (to <= lo || hi <= from) {
+                return;
+            }
+            if (from <= lo && hi <= to) {
+                max[node] += delta;
+                pending[node] += delta;
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            add(2 * node, lo, mid, from, to, delta);
+            add(2 * node + 1, mid, hi, from, to, delta);
+            max[node] = pending[node] + Math.max(max[2 * node], max[2 * node + 1]);
+        }
+
+        private int max(int node, int lo, int hi, int from, int to) {
+            if (to <= lo || hi <= from) {
+                return Integer.MIN_VALUE;
+            }
+            if (from <= lo && hi <= to) {
+                return max[node];
+            }
+            int mid = (lo + hi) >>> 1;
+            int childMax = Math.max(max(2 * node, lo, mid, from, to), max(2 * node + 1, mid, hi, from, to));
+            return pending[node] + childMax;
+        }
+    }
+}
@@ -10,6 +10,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -18,8 +20,17 @@ public class PaymentService {
     @Autowired
     private PaymentRepository paymentRepository;
 
+    @Autowired
+    private ShardRouter shardRouter;
+
     @Transactional
     public Payment processPayment(Booking booking, BigDecimal amount, String paymentMethod) {
+        // A booking is charged at most once; a retried payment gets the completed one back
+        Optional<Payment> existing = paymentRepository.findByBookingId(booking.getId());
+        if (existing.isPresent() && existing.get().getStatus() == PaymentStatus.COMPLETED) {
+            return existing.get();
+        }
+
         // Create payment record
         Payment payment = new Payment(booking, amount, paymentMethod);
         payment.setStatus(PaymentStatus.PROCESSING);
@@ -27,7 +38,7 @@ public class PaymentService {
 
         try {
             // Simulate payment gateway integration
-            String transactionId = processWithPaymentGateway(amount, paymentMethod);
+            String transactionId = processWithPaymentGateway(amount, paymentMethod, "booking-" + booking.getId());
             
             payment.setTransactionId(transactionId);
             payment.setStatus(PaymentStatus.COMPLETED);
@@ -63,18 +74,26 @@ public class PaymentService {
     }
 
     public Payment getPaymentByBookingId(Long bookingId) {
-        return paymentRepository.findByBookingId(bookingId)
+        // Payments live on the same shard as their booking
+        return shardRouter.inShard(shardRouter.shardForId(bookingId), true,
+                () -> paymentRepository.findByBookingId(bookingId))
                 .orElseThrow(() -> new RuntimeException("Payment not found for booking"));
     }
 
     public Payment getPaymentById(Long paymentId) {
-        return paymentRepository.findById(paymentId)
+        return shardRouter.inShard(shardRouter.shardForId(paymentId), true,
+                () -> paymentRepository.findById(paymentId))
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
     }
 
+    public List<Payment> getPaymentsByUser(Long userId) {
+        return shardRouter.scatterGather(() -> paymentRepository.findByUserId(userId));
+    }
+
     // Simulate payment gateway integration
-    private String processWithPaymentGateway(BigDecimal amount, String paymentMethod) {
+    private String processWithPaymentGateway(BigDecimal amount, String paymentMethod, String idempotencyKey) {
         // In a real implementation, this would integrate with a payment gateway like Stripe, PayPal, etc.
+        // and pass idempotencyKey so the gateway never charges the same booking twice
         
         // Simulate processing time
         try {
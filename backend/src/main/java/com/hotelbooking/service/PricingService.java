@@ -0,0 +1,347 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.model.RoomAvailability;
+import com.hotelbooking.model.RoomType;
+import com.hotelbooking.repository.RoomTypeRepository;
+import com.hotelbooking.repository.ShardedRoomAvailabilityRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Nightly rates are resolved once per room type into a rate calendar of fixed-point paise
+// (one long per night over the pricing horizon). Quoting a stay is then a bounds check and a
+// sum over that array, with no per-night BigDecimal or repository access. Calendars are local to
+// each node: edits here invalidate them at once, edits on other nodes once calendar-ttl-seconds
+// have passed.
+@Service
+public class PricingService {
+
+    private static final int BASIS_POINTS = 10_000;
+
+    // 18% GST, charged on top of the room subtotal
+    public static final int GST_BPS = 1800;
+    public static final BigDecimal GST_RATE = new BigDecimal("18.00");
+
+    @Autowired
+    private RoomTypeRepository roomTypeRepository;
+
+    @Autowired
+    private ShardedRoomAvailabilityRepository shardedRoomAvailabilityRepository;
+
+    @Value("${pricing.horizon-days:365}")
+    private int horizonDays;
+
+    @Value("${pricing.calendar-ttl-seconds:60}")
+    private long calendarTtlSeconds;
+
+    @Value("${pricing.weekend-uplift-bps:1500}")
+    private int weekendUpliftBps;
+
+    @Value("${pricing.peak-season-months:10,11,12,1}")
+    private List<Integer> peakSeasonMonths;
+
+    @Value("${pricing.peak-season-uplift-bps:2000}")
+    private int peakSeasonUpliftBps;
+
+    @Value("${pricing.low-inventory-threshold:5}")
+    private int lowInventoryThreshold;
+
+    @Value("${pricing.low-inventory-uplift-bps:1000}")
+    private int lowInventoryUpliftBps;
+
+    @Value("${pricing.last-rooms-threshold:2}")
+    private int lastRoomsThreshold;
+
+    @Value("${pricing.last-rooms-uplift-bps:2500}")
+    private int lastRoomsUpliftBps;
+
+    private final boolean[] peakMonth = new boolean[13];
+
+    private final Map<Long, RateCalendar> calendars = new ConcurrentHashMap<>();
+
+    // Invalidation counters per room type and for invalidateAll
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong allVersion = new AtomicLong();
+
+    @PostConstruct
+    void initSeasons() {
+        for (Integer month : peakSeasonMonths) {
+            if (month != null && month >= 1 && month <= 12) {
+                peakMonth[month] = true;
+            }
+        }
+    }
+
+    // What the guest pays: the nightly rates plus GST, the same total a signed quote carries
+    public BigDecimal quoteStay(Long roomTypeId, LocalDate checkInDate, LocalDate checkOutDate) {
+        long subtotalPaise = quoteStayPaise(roomTypeId, checkInDate, checkOutDate);
+        return toRupees(subtotalPaise + taxPaise(subtotalPaise));
+    }
+
+    // Nightly rates only, before tax
+    public long quoteStayPaise(Long roomTypeId, LocalDate checkInDate, LocalDate checkOutDate) {
+        int nights = (int) ChronoUnit.DAYS.between(checkInDate, checkOutDate);
+        if (nights <= 0) {
+            throw new RuntimeException("Check-out date must be after check-in date");
+        }
+
+        RateCalendar calendar = calendar(roomTypeId);
+        int from = calendar.indexOf(checkInDate);
+        if (calendar.covers(from, nights)) {
+            long total = 0;
+            long[] rates = calendar.rates;
+            for (int i = from; i < from + nights; i++) {
+                total += rates[i];
+            }
+            return total;
+        }
+
+        long total = 0;
+        for (long rate : resolveRates(roomTypeId, checkInDate, nights)) {
+            total += rate;
+        }
+        return total;
+    }
+
+    public long[] nightlyRatesPaise(Long roomTypeId, LocalDate checkInDate, LocalDate checkOutDate) {
+        int nights = (int) ChronoUnit.DAYS.between(checkInDate, checkOutDate);
+        if (nights <= 0) {
+            throw new RuntimeException("Check-out date must be after check-in date");
+        }
+
+        RateCalendar calendar = calendar(roomTypeId);
+        int from = calendar.indexOf(checkInDate);
+        if (calendar.covers(from, nights)) {
+            return Arrays.copyOfRange(calendar.rates, from, from + nights);
+        }
+        return resolveRates(roomTypeId, checkInDate, nights);
+    }
+
+    // Re-resolves only the given nights of a room type's calendar and returns the nights whose
+    // rate changed, mapped to the new rate in paise. Other nights keep their cached rates.
+    public Map<LocalDate, Long> repriceNights(Long roomTypeId, SortedSet<LocalDate> nights) {
+        Map<LocalDate, Long> changed = new LinkedHashMap<>();
+        if (nights.isEmpty()) {
+            return changed;
+        }
+
+        long version = version(roomTypeId);
+        RoomType roomType = roomTypeRepository.findById(roomTypeId)
+                .orElseThrow(() -> new RuntimeException("Room type not found"));
+        long basePaise = toPaise(roomType.getBasePrice());
+
+        Map<LocalDate, RoomAvailability> availabilityByDate = new HashMap<>();
+        for (RoomAvailability day : shardedRoomAvailabilityRepository.findByRoomTypeIdAndDateRange(
+                roomType.getHotel().getId(), roomTypeId, nights.first(), nights.last())) {
+            availabilityByDate.put(day.getAvailabilityDate(), day);
+        }
+
+        // Published only if nothing invalidated the calendar since these rows were read, and retried
+        // against the newer calendar if another repricing published first
+        while (true) {
+            RateCalendar calendar = calendar(roomTypeId);
+            long[] rates = calendar.rates.clone();
+            changed.clear();
+            for (LocalDate night : nights) {
+                int index = calendar.indexOf(night);
+                if (!calendar.covers(index, 1)) {
+                    continue;
+                }
+                RoomAvailability day = availabilityByDate.get(night);
+                long overridePaise = day != null && day.getPriceOverride() != null ? toPaise(day.getPriceOverride()) : -1;
+                int availableRooms = day != null && day.getAvailableRooms() != null ? day.getAvailableRooms() : -1;
+                long rate = nightlyRate(basePaise, night, overridePaise, availableRooms);
+                if (rate != rates[index]) {
+                    rates[index] = rate;
+                    changed.put(night, rate);
+                }
+            }
+
+            // Copy-on-write keeps concurrent quotes summing over a consistent array
+            // The repriced copy keeps the build time, so the TTL still counts from the last full read
+            RateCalendar repriced = new RateCalendar(calendar.startDate, rates, calendar.builtAtNanos);
+            if (changed.isEmpty() || install(roomTypeId, calendar, repriced, version)) {
+                return changed;
+            }
+            if (version(roomTypeId) != version) {
+                // Invalidated meanwhile: the next quote rebuilds the whole calendar from the database
+                return changed;
+            }
+        }
+    }
+
+    // The version is bumped before the calendar is dropped, so a calendar built from rows read
+    // before this call can no longer be installed. Inside a transaction it is done again after
+    // commit: a quote in between still reads the old rows.
+    public void invalidate(Long roomTypeId) {
+        evict(roomTypeId);
+        afterCommit(() -> evict(roomTypeId));
+    }
+
+    public void invalidateAll() {
+        evictAll();
+        afterCommit(this::evictAll);
+    }
+
+    // Rounded half up to the paisa
+    public static long taxPaise(long subtotalPaise) {
+        return (subtotalPaise * GST_BPS + BASIS_POINTS / 2) / BASIS_POINTS;
+    }
+
+    public static BigDecimal toRupees(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    public static long toPaise(BigDecimal rupees) {
+        return rupees.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private void evict(Long roomTypeId) {
+        versions.merge(roomTypeId, 1L, Long::sum);
+        calendars.remove(roomTypeId);
+    }
+
+    private void evictAll() {
+        allVersion.incrementAndGet();
+        calendars.clear();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private RateCalendar calendar(Long roomTypeId) {
+        LocalDate today = LocalDate.now();
+        long version = version(roomTypeId);
+        RateCalendar calendar = calendars.get(roomTypeId);
+        if (calendar == null || !calendar.startDate.equals(today)
+                || System.nanoTime() - calendar.builtAtNanos > calendarTtlSeconds * 1_000_000_000L) {
+            // Calendars roll forward daily so the horizon always starts at today, and are re-read
+            // after the TTL to pick up base prices and overrides changed on other nodes
+            RateCalendar built = new RateCalendar(today, resolveRates(roomTypeId, today, horizonDays), System.nanoTime());
+            install(roomTypeId, calendar, built, version);
+            return built;
+        }
+        return calendar;
+    }
+
+    // Both counters only grow, so the sum changes whenever either is bumped
+    private long version(Long roomTypeId) {
+        return allVersion.get() + versions.getOrDefault(roomTypeId, 0L);
+    }
+
+    // Replaces expected (null: no calendar) unless another calendar was installed or the room type
+    // was invalidated since version was read
+    private boolean install(Long roomTypeId, RateCalendar expected, RateCalendar replacement, long version) {
+        boolean[] installed = new boolean[1];
+        calendars.compute(roomTypeId, (id, current) -> {
+            if (current != expected || version(roomTypeId) != version) {
+                return current;
+            }
+            installed[0] = true;
+            return replacement;
+        });
+        return installed[0];
+    }
+
+    private long[] resolveRates(Long roomTypeId, LocalDate startDate, int nights) {
+        RoomType roomType = roomTypeRepository.findById(roomTypeId)
+                .orElseThrow(() -> new RuntimeException("Room type not found"));
+        long basePaise = toPaise(roomType.getBasePrice());
+
+        long[] overrides = new long[nights];
+        int[] availableRooms = new int[nights];
+        Arrays.fill(overrides, -1);
+        Arrays.fill(availableRooms, -1);
+        List<RoomAvailability> availability = shardedRoomAvailabilityRepository.findByRoomTypeIdAndDateRange(
+                roomType.getHotel().getId(), roomTypeId, startDate, startDate.plusDays(nights - 1));
+        for (RoomAvailability day : availability) {
+            int index = (int) ChronoUnit.DAYS.between(startDate, day.getAvailabilityDate());
+            if (index < 0 || index >= nights) {
+                continue;
+            }
+            if (day.getPriceOverride() != null) {
+                overrides[index] = toPaise(day.getPriceOverride());
+            }
+            if (day.getAvailableRooms() != null) {
+                availableRooms[index] = day.getAvailableRooms();
+            }
+        }
+
+        long[] rates = new long[nights];
+        LocalDate night = startDate;
+        for (int i = 0; i < nights; i++) {
+            rates[i] = nightlyRate(basePaise, night, overrides[i], availableRooms[i]);
+            night = night.plusDays(1);
+        }
+        return rates;
+    }
+
+    long nightlyRate(long basePaise, LocalDate night, long overridePaise, int availableRooms) {
+        // An explicit date override is an admin pricing decision and wins over every rule
+        if (overridePaise >= 0) {
+            return overridePaise;
+        }
+
+        int bps = BASIS_POINTS;
+        DayOfWeek dayOfWeek = night.getDayOfWeek();
+        if (dayOfWeek == DayOfWeek.FRIDAY || dayOfWeek == DayOfWeek.SATURDAY) {
+            bps += weekendUpliftBps;
+        }
+        if (peakMonth[night.getMonthValue()]) {
+            bps += peakSeasonUpliftBps;
+        }
+        if (availableRooms >= 0) {
+            if (availableRooms <= lastRoomsThreshold) {
+                bps += lastRoomsUpliftBps;
+            } else if (availableRooms <= lowInventoryThreshold) {
+                bps += lowInventoryUpliftBps;
+            }
+        }
+        return (basePaise * bps + BASIS_POINTS / 2) / BASIS_POINTS;
+    }
+
+    private static final class RateCalendar {
+        private final LocalDate startDate;
+        private final long[] rates;
+        private final long builtAtNanos;
+
+        private RateCalendar(LocalDate startDate, long[] rates, long builtAtNanos) {
+            this.startDate = startDate;
+            this.rates = rates;
+            this.builtAtNanos = builtAtNanos;
+        }
+
+        private int indexOf(LocalDate date) {
+            return (int) ChronoUnit.DAYS.between(startDate, date);
+        }
+
+        private boolean covers(int from, int nights) {
+            return from >= 0 && from + nights <= rates.length;
+        }
+    }
+}
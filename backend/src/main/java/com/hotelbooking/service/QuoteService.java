@@ -0,0 +1,177 @@
+package com.hotelbooking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hotelbooking.dto.PriceQuote;
+import com.hotelbooking.model.RoomType;
+import com.hotelbooking.repository.RoomTypeRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Quotes are HS512 tokens signed with their own key, so a leaked quote key cannot mint login
+// tokens and rotating the JWT secret does not void quotes already handed out
+@Service
+public class QuoteService {
+
+    private static final String QUOTE_SUBJECT = "price-quote";
+
+    @Autowired
+    private RoomTypeRepository roomTypeRepository;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${quotes.signing-key:}")
+    private String signingKeySecret;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Value("${quotes.ttl-minutes:15}")
+    private long quoteTtlMinutes;
+
+    @Value("${quotes.cache-seconds:60}")
+    private long cacheSeconds;
+
+    @Value("${quotes.cache-size:10000}")
+    private long cacheSize;
+
+    // Absorbs repeated quotes while guests toggle dates; entries expire well before the quote itself
+    private Cache<QuoteKey, PriceQuote> quoteCache;
+
+    private SecretKey signingKey;
+
+    @PostConstruct
+    void init() {
+        if (signingKeySecret == null || signingKeySecret.isBlank()) {
+            throw new IllegalStateException("quotes.signing-key is not set: provide QUOTE_SIGNING_KEY "
+                    + "(or run with the dev profile locally)");
+        }
+        if (signingKeySecret.equals(jwtSecret)) {
+            throw new IllegalStateException("quotes.signing-key must differ from jwt.secret");
+        }
+        signingKey = Keys.hmacShaKeyFor(signingKeySecret.getBytes(StandardCharsets.UTF_8));
+
+        quoteCache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, quoteCache, "quotes");
+    }
+
+    public PriceQuote getQuote(Long roomTypeId, LocalDate checkInDate, LocalDate checkOutDate, Integer guestCount) {
+        if (!checkInDate.isBefore(checkOutDate) || checkInDate.isBefore(LocalDate.now())) {
+            throw new RuntimeException("Invalid check-in or check-out date");
+        }
+        if (guestCount == null || guestCount <= 0) {
+            throw new RuntimeException("Guest count must be positive");
+        }
+
+        return quoteCache.get(new QuoteKey(roomTypeId, checkInDate, checkOutDate, guestCount), this::buildQuote);
+    }
+
+    public BigDecimal verifyQuote(String quoteToken, Long roomTypeId, LocalDate checkInDate,
+                                  LocalDate checkOutDate, Integer guestCount) {
+        Claims claims;
+        try {
+            claims = Jwts.parserBuilder()
+                    .setSigningKey(signingKey)
+                    .build()
+                    .parseClaimsJws(quoteToken)
+                    .getBody();
+            if (!QUOTE_SUBJECT.equals(claims.getSubject())) {
+                throw new MalformedJwtException("Unexpected token subject");
+            }
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new RuntimeException("Price quote is invalid or has expired");
+        }
+
+        boolean matches = ((Number) claims.get("roomTypeId")).longValue() == roomTypeId
+                && checkInDate.toString().equals(claims.get("checkInDate"))
+                && checkOutDate.toString().equals(claims.get("checkOutDate"))
+                && ((Number) claims.get("guestCount")).intValue() == guestCount;
+        if (!matches) {
+            throw new RuntimeException("Price quote does not match the booking details");
+        }
+
+        return PricingService.toRupees(((Number) claims.get("totalPaise")).longValue());
+    }
+
+    private PriceQuote buildQuote(QuoteKey key) {
+        RoomType roomType = roomTypeRepository.findById(key.roomTypeId())
+                .orElseThrow(() -> new RuntimeException("Room type not found"));
+        if (key.guestCount() > roomType.getCapacity()) {
+            throw new RuntimeException("Guest count exceeds room capacity");
+        }
+
+        long[] rates = pricingService.nightlyRatesPaise(key.roomTypeId(), key.checkInDate(), key.checkOutDate());
+        List<PriceQuote.NightlyRate> nights = new ArrayList<>(rates.length);
+        long subtotalPaise = 0;
+        LocalDate night = key.checkInDate();
+        for (long rate : rates) {
+            nights.add(new PriceQuote.NightlyRate(night, PricingService.toRupees(rate)));
+            subtotalPaise += rate;
+            night = night.plusDays(1);
+        }
+        long taxPaise = PricingService.taxPaise(subtotalPaise);
+        long totalPaise = subtotalPaise + taxPaise;
+
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("roomTypeId", key.roomTypeId());
+        claims.put("checkInDate", key.checkInDate().toString());
+        claims.put("checkOutDate", key.checkOutDate().toString());
+        claims.put("guestCount", key.guestCount());
+        claims.put("totalPaise", totalPaise);
+        long ttlInMs = Duration.ofMinutes(quoteTtlMinutes).toMillis();
+        Date now = new Date();
+
+        PriceQuote quote = new PriceQuote();
+        quote.setQuoteToken(Jwts.builder()
+                .setClaims(claims)
+                .setSubject(QUOTE_SUBJECT)
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + ttlInMs))
+                .signWith(signingKey, SignatureAlgorithm.HS512)
+                .compact());
+        quote.setRoomTypeId(key.roomTypeId());
+        quote.setHotelId(roomType.getHotel().getId());
+        quote.setCheckInDate(key.checkInDate());
+        quote.setCheckOutDate(key.checkOutDate());
+        quote.setGuestCount(key.guestCount());
+        quote.setNights(nights);
+        quote.setSubtotal(PricingService.toRupees(subtotalPaise));
+        quote.setTaxRate(PricingService.GST_RATE);
+        quote.setTaxAmount(PricingService.toRupees(taxPaise));
+        quote.setTotalAmount(PricingService.toRupees(totalPaise));
+        quote.setExpiresAt(LocalDateTime.now().plus(Duration.ofMillis(ttlInMs)));
+        return quote;
+    }
+
+    private record QuoteKey(Long roomTypeId, LocalDate checkInDate, LocalDate checkOutDate, Integer guestCount) {}
+}
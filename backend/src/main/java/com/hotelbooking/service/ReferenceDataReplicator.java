@@ -0,0 +1,140 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.config.ShardContext;
+import com.hotelbooking.config.ShardRoutingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Users, hotels, room types and rooms are written on shard 0 only, but bookings, holds and
+// inventory on every other shard reference them by foreign key and join them. A full copy runs at
+// startup; after that each pass copies the rows whose updated_at moved since the previous pass
+// (minus an overlap for transactions that committed late), parents before children. A row is
+// updated by id unless the shard's copy is newer (written ahead of replication, see
+// InventoryService.adjustTotalRooms), and inserted when the shard does not have it yet. Deleted
+// rows stay on the other shards, where bookings may still reference them.
+@Service
+public class ReferenceDataReplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataReplicator.class);
+
+    // Foreign key order
+    static final List<String> TABLES = List.of("users", "hotels", "room_types", "rooms");
+
+    private static final Duration OVERLAP = Duration.ofMinutes(1);
+
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    // Highest updated_at copied per table; absent until the first full copy
+    private final Map<String, Timestamp> watermarks = new HashMap<>();
+
+    // Before the hold re-arming, so shards are usable once the app is ready
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void replicateAtStartup() {
+        replicate();
+    }
+
+    @Scheduled(fixedDelayString = "${sharding.reference-sync-ms:2000}", initialDelayString = "${sharding.reference-sync-ms:2000}")
+    public synchronized void replicate() {
+        if (shardRoutingDataSource.getShardCount() == 1) {
+            return;
+        }
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(shardRoutingDataSource);
+        for (String table : TABLES) {
+            try {
+                replicateTable(jdbcTemplate, table);
+            } catch (Exception e) {
+                // Children of this table would fail their foreign keys, so stop until the next pass
+                logger.error("Failed to replicate {} to the other shards: {}", table, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void replicateTable(JdbcTemplate jdbcTemplate, String table) {
+        Timestamp watermark = watermarks.get(table);
+        List<Map<String, Object>> rows = onShard(0, () -> watermark == null
+                ? jdbcTemplate.queryForList("SELECT * FROM " + table + " ORDER BY id")
+                : jdbcTemplate.queryForList("SELECT * FROM " + table + " WHERE updated_at >= ? ORDER BY id",
+                        Timestamp.from(watermark.toInstant().minus(OVERLAP))));
+        if (rows.isEmpty()) {
+            watermarks.putIfAbsent(table, new Timestamp(0));
+            return;
+        }
+
+        for (int shard = 1; shard < shardRoutingDataSource.getShardCount(); shard++) {
+            onShard(shard, () -> {
+                upsert(jdbcTemplate, table, rows);
+                return null;
+            });
+        }
+
+        Timestamp newest = watermark != null ? watermark : new Timestamp(0);
+        for (Map<String, Object> row : rows) {
+            // JdbcTemplate rows are case-insensitive maps: labels are upper case on H2
+            Object updatedAt = row.get("updated_at");
+            if (updatedAt instanceof Timestamp timestamp && timestamp.after(newest)) {
+                newest = timestamp;
+            }
+        }
+        watermarks.put(table, newest);
+        if (watermark == null) {
+            logger.info("Copied {} {} rows to {} other shards", rows.size(), table,
+                    shardRoutingDataSource.getShardCount() - 1);
+        }
+    }
+
+    private static void upsert(JdbcTemplate jdbcTemplate, String table, List<Map<String, Object>> rows) {
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        List<String> updatable = columns.stream().filter(column -> !column.equalsIgnoreCase("id")).toList();
+        String idColumn = columns.stream().filter(column -> column.equalsIgnoreCase("id")).findFirst().orElseThrow();
+
+        String update = "UPDATE " + table + " SET "
+                + updatable.stream().map(column -> column + " = ?").collect(Collectors.joining(", "))
+                + " WHERE " + idColumn + " = ? AND (updated_at IS NULL OR updated_at <= ?)";
+        String exists = "SELECT COUNT(*) FROM " + table + " WHERE " + idColumn + " = ?";
+        String insert = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                + columns.stream().map(column -> "?").collect(Collectors.joining(", ")) + ")";
+
+        for (Map<String, Object> row : rows) {
+            Object[] updateArgs = new Object[columns.size() + 1];
+            for (int i = 0; i < updatable.size(); i++) {
+                updateArgs[i] = row.get(updatable.get(i));
+            }
+            updateArgs[updatable.size()] = row.get(idColumn);
+            updateArgs[updatable.size() + 1] = row.get("updated_at");
+            if (jdbcTemplate.update(update, updateArgs) == 0
+                    && jdbcTemplate.queryForObject(exists, Long.class, row.get(idColumn)) == 0) {
+                jdbcTemplate.update(insert, columns.stream().map(row::get).toArray());
+            }
+        }
+    }
+
+    private static <T> T onShard(int shard, Supplier<T> work) {
+        Integer previous = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            return work.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+}
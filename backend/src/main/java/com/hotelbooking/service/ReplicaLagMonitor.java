@@ -0,0 +1,66 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.config.ReplicaProperties;
+import com.hotelbooking.config.ReplicaRoutingDataSource;
+import com.hotelbooking.config.ReplicaRoutingPolicy;
+import com.hotelbooking.config.ShardRoutingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+
+// Sends all reads back to the primaries while any replica is unreachable or lags more than
+// replica.max-lag-ms, and lets them return once every replica has caught up
+@Service
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @Autowired
+    private ReplicaRoutingPolicy replicaRoutingPolicy;
+
+    @Autowired
+    private ReplicaProperties replicaProperties;
+
+    @Scheduled(fixedDelayString = "${replica.lag-check-interval-ms:2000}")
+    public void checkReplicas() {
+        replicaRoutingPolicy.evictExpiredWrites();
+
+        boolean healthy = true;
+        for (DataSource target : shardRoutingDataSource.getResolvedDataSources().values()) {
+            if (target instanceof ReplicaRoutingDataSource replicaRouting && !isWithinLag(replicaRouting.getReplica())) {
+                healthy = false;
+                break;
+            }
+        }
+
+        if (healthy != replicaRoutingPolicy.isReplicasHealthy()) {
+            logger.warn(healthy ? "Replicas caught up, reads go to replicas again"
+                    : "Replica unavailable or lagging, reads fall back to primaries");
+            replicaRoutingPolicy.setReplicasHealthy(healthy);
+        }
+    }
+
+    private boolean isWithinLag(DataSource replica) {
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(replica);
+            String lagQuery = replicaProperties.getLagQuery();
+            if (lagQuery == null || lagQuery.isBlank()) {
+                jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                return true;
+            }
+            Double lagSeconds = jdbcTemplate.queryForObject(lagQuery, Double.class);
+            return lagSeconds != null && lagSeconds * 1000 <= replicaProperties.getMaxLagMs();
+        } catch (Exception e) {
+            logger.debug("Replica check failed: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.model.RoomType;
+import com.hotelbooking.repository.RoomTypeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Inventory changes report the nights they touched once their transaction has committed. The
+// nights go to AvailabilityPushService and are queued for repricing: nights of the same room type
+// are collected while they wait, and a background pass reprices only those cells from the
+// committed room_availability rows, so prices track occupancy without full recomputes. Rooms left
+// are counted in the database by InventoryService; a pending reprice that is lost with a restart
+// only means the calendar is rebuilt from the same rows on first use.
+@Service
+public class RepricingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RepricingService.class);
+
+    @Autowired
+    private RoomTypeRepository roomTypeRepository;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private AvailabilityPushService availabilityPushService;
+
+    // Values are never changed in place: merge swaps in a new set, so a drained set is complete
+    private final Map<Long, SortedSet<LocalDate>> pendingNights = new ConcurrentHashMap<>();
+
+    public void recordInventoryChange(Long roomTypeId, LocalDate checkInDate, LocalDate checkOutDate) {
+        SortedSet<LocalDate> nights = new TreeSet<>();
+        for (LocalDate night = checkInDate; night.isBefore(checkOutDate); night = night.plusDays(1)) {
+            nights.add(night);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Rolled-back inventory changes are never repriced
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committed(roomTypeId, nights);
+                }
+            });
+        } else {
+            committed(roomTypeId, nights);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pricing.repricing-interval-ms:2000}")
+    public void processPendingRepricing() {
+        for (Long roomTypeId : new ArrayList<>(pendingNights.keySet())) {
+            SortedSet<LocalDate> nights = pendingNights.remove(roomTypeId);
+            if (nights == null) {
+                continue;
+            }
+            try {
+                RoomType roomType = roomTypeRepository.findById(roomTypeId).orElse(null);
+                if (roomType != null) {
+                    repriceAndPublish(roomType, nights);
+                }
+            } catch (Exception e) {
+                logger.error("Failed to reprice room type {}: {}", roomTypeId, e.getMessage());
+                // Repricing reads committed rows, so running it again later is safe
+                addNights(roomTypeId, nights);
+            }
+        }
+    }
+
+    private void committed(Long roomTypeId, SortedSet<LocalDate> nights) {
+        availabilityPushService.recordChanged(roomTypeId, nights);
+        addNights(roomTypeId, nights);
+    }
+
+    private void addNights(Long roomTypeId, SortedSet<LocalDate> nights) {
+        pendingNights.merge(roomTypeId, nights, (waiting, added) -> {
+            SortedSet<LocalDate> merged = new TreeSet<>(waiting);
+            merged.addAll(added);
+            return merged;
+        });
+    }
+
+    private void repriceAndPublish(RoomType roomType, SortedSet<LocalDate> nights) {
+        Map<LocalDate, Long> changedRates = pricingService.repriceNights(roomType.getId(), nights);
+        if (changedRates.isEmpty()) {
+            return;
+        }
+
+        Long hotelId = roomType.getHotel().getId();
+        changedRates.forEach((night, ratePaise) -> notificationService.notifyPriceUpdate(
+                hotelId, roomType.getName(), PricingService.toRupees(ratePaise).doubleValue(), night));
+    }
+}
@@ -0,0 +1,277 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.config.SchedulingConfig;
+import com.hotelbooking.model.Booking;
+import com.hotelbooking.model.BookingStatus;
+import com.hotelbooking.model.Hotel;
+import com.hotelbooking.model.Room;
+import com.hotelbooking.model.RoomAssignment;
+import com.hotelbooking.model.RoomStatus;
+import com.hotelbooking.model.RoomType;
+import com.hotelbooking.repository.BookingRepository;
+import com.hotelbooking.repository.HotelRepository;
+import com.hotelbooking.repository.RoomAssignmentRepository;
+import com.hotelbooking.repository.RoomRepository;
+import com.hotelbooking.repository.RoomTypeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Maps confirmed bookings to physical rooms. A stay goes to a single room whenever one is free for
+// all of its nights, choosing the room whose neighbouring stays leave the smallest gaps (best fit)
+// so later long stays still find whole rooms. Only when no room is free for the whole stay is it
+// split, each time taking the room that stays free the longest, which needs the fewest room
+// changes. Rooms under MAINTENANCE or OUT_OF_ORDER are never assigned. A nightly pass re-packs all
+// future arrivals per room type, in parallel across hotels; in-house guests keep their rooms. Both
+// paths read the calendar and write assignments under the room type row lock, so two bookings, or
+// a booking and the nightly pass, cannot pick the same room for the same night.
+@Service
+public class RoomAssignmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomAssignmentService.class);
+
+    private static final Set<RoomStatus> UNASSIGNABLE = EnumSet.of(RoomStatus.MAINTENANCE, RoomStatus.OUT_OF_ORDER);
+
+    // Gap counted for a side with no neighbouring stay, so a tight fit beats an empty calendar
+    private static final long OPEN_GAP_DAYS = 3650;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private RoomAssignmentRepository roomAssignmentRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private RoomTypeRepository roomTypeRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${room-assignment.reoptimize-threads:4}")
+    private int reoptimizeThreads;
+
+    private ExecutorService reoptimizeExecutor;
+
+    @PostConstruct
+    void initExecutor() {
+        reoptimizeExecutor = Executors.newFixedThreadPool(Math.max(1, reoptimizeThreads), runnable -> {
+            Thread thread = new Thread(runnable, "room-assignment");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        reoptimizeExecutor.shutdown();
+    }
+
+    // Runs inside the booking's shard transaction; a room type without rooms assigns nothing
+    public List<RoomAssignment> assignRooms(Booking booking) {
+        if (booking.getStatus() != BookingStatus.CONFIRMED) {
+            return List.of();
+        }
+        Long roomTypeId = booking.getRoomType().getId();
+        List<Room> rooms = roomRepository.findAssignableRooms(roomTypeId, UNASSIGNABLE);
+        if (rooms.isEmpty()) {
+            return List.of();
+        }
+
+        // Already held when the booking reserved inventory in this transaction
+        roomTypeRepository.lockByHotelIdAndIdIn(booking.getHotel().getId(), List.of(roomTypeId));
+        RoomCalendar calendar = new RoomCalendar(rooms);
+        calendar.addAll(roomAssignmentRepository.findOverlapping(roomTypeId,
+                booking.getCheckInDate(), booking.getCheckOutDate()));
+        return roomAssignmentRepository.saveAll(calendar.assign(booking));
+    }
+
+    // Rooms of the type that can take guests; 0 when the property has not set up its rooms
+    public int countAssignableRooms(Long roomTypeId) {
+        return (int) roomRepository.countByRoomTypeIdAndStatusNotIn(roomTypeId, UNASSIGNABLE);
+    }
+
+    public void releaseRooms(Long bookingId) {
+        roomAssignmentRepository.deleteByBookingIdIn(List.of(bookingId));
+    }
+
+    @Scheduled(cron = "${room-assignment.reoptimize-cron:0 30 3 * * *}", scheduler = SchedulingConfig.BULK_JOB_SCHEDULER)
+    public void reoptimizeAll() {
+        long startedAt = System.currentTimeMillis();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Hotel hotel : hotelRepository.findAll()) {
+            Long hotelId = hotel.getId();
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    shardRouter.inHotelShard(hotelId, () -> {
+                        reoptimizeHotel(hotelId);
+                        return null;
+                    });
+                } catch (Exception e) {
+                    logger.error("Room re-optimization failed for hotel {}: {}", hotelId, e.getMessage());
+                }
+            }, reoptimizeExecutor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        logger.info("Room assignments re-optimized for {} hotels in {} ms",
+                futures.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    private void reoptimizeHotel(Long hotelId) {
+        LocalDate today = LocalDate.now();
+        List<Long> roomTypeIds = roomTypeRepository.findByHotelId(hotelId).stream().map(RoomType::getId).toList();
+        if (roomTypeIds.isEmpty()) {
+            return;
+        }
+        // Bookings of this hotel wait until the pass commits instead of assigning from a stale calendar
+        for (RoomType roomType : roomTypeRepository.lockByHotelIdAndIdIn(hotelId, roomTypeIds)) {
+            Long roomTypeId = roomType.getId();
+            List<Room> rooms = roomRepository.findAssignableRooms(roomTypeId, UNASSIGNABLE);
+            if (rooms.isEmpty()) {
+                continue;
+            }
+
+            List<Booking> arrivals = new ArrayList<>();
+            LocalDate lastCheckOut = today;
+            for (Booking booking : bookingRepository.findByRoomTypeIdAndStatusIn(roomTypeId, List.of(BookingStatus.CONFIRMED))) {
+                if (booking.getCheckInDate().isAfter(today)) {
+                    arrivals.add(booking);
+                    if (booking.getCheckOutDate().isAfter(lastCheckOut)) {
+                        lastCheckOut = booking.getCheckOutDate();
+                    }
+                }
+            }
+            if (arrivals.isEmpty()) {
+                continue;
+            }
+
+            roomAssignmentRepository.deleteByBookingIdIn(arrivals.stream().map(Booking::getId).toList());
+            RoomCalendar calendar = new RoomCalendar(rooms);
+            calendar.addAll(roomAssignmentRepository.findOverlapping(roomTypeId, today, lastCheckOut));
+
+            // Earliest arrival first and, on the same day, the longest stay first
+            arrivals.sort(Comparator.comparing(Booking::getCheckInDate)
+                    .thenComparing(Booking::getCheckOutDate, Comparator.reverseOrder()));
+            List<RoomAssignment> assignments = new ArrayList<>();
+            for (Booking booking : arrivals) {
+                assignments.addAll(calendar.assign(booking));
+            }
+            roomAssignmentRepository.saveAll(assignments);
+            logger.debug("Room type {}: {} arrivals packed into {} room segments",
+                    roomTypeId, arrivals.size(), assignments.size());
+        }
+    }
+
+    // Taken nights per room as non-overlapping [start, end) runs keyed by start
+    private static final class RoomCalendar {
+
+        private final List<Room> rooms;
+        private final Map<Long, TreeMap<LocalDate, LocalDate>> taken = new HashMap<>();
+
+        RoomCalendar(List<Room> rooms) {
+            this.rooms = rooms;
+            for (Room room : rooms) {
+                taken.put(room.getId(), new TreeMap<>());
+            }
+        }
+
+        void addAll(List<RoomAssignment> assignments) {
+            for (RoomAssignment assignment : assignments) {
+                // Rooms that went out of service are not in the calendar
+                TreeMap<LocalDate, LocalDate> runs = taken.get(assignment.getRoom().getId());
+                if (runs != null) {
+                    runs.put(assignment.getStartDate(), assignment.getEndDate());
+                }
+            }
+        }
+
+        List<RoomAssignment> assign(Booking booking) {
+            LocalDate checkIn = booking.getCheckInDate();
+            LocalDate checkOut = booking.getCheckOutDate();
+
+            Room best = null;
+            long bestGap = Long.MAX_VALUE;
+            for (Room room : rooms) {
+                TreeMap<LocalDate, LocalDate> runs = taken.get(room.getId());
+                LocalDate freeUntil = freeUntil(runs, checkIn);
+                if (freeUntil == null || freeUntil.isBefore(checkOut)) {
+                    continue;
+                }
+                Map.Entry<LocalDate, LocalDate> previous = runs.floorEntry(checkIn);
+                long gapBefore = previous == null ? OPEN_GAP_DAYS : ChronoUnit.DAYS.between(previous.getValue(), checkIn);
+                long gapAfter = freeUntil.equals(LocalDate.MAX) ? OPEN_GAP_DAYS : ChronoUnit.DAYS.between(checkOut, freeUntil);
+                if (gapBefore + gapAfter < bestGap) {
+                    best = room;
+                    bestGap = gapBefore + gapAfter;
+                }
+            }
+            if (best != null) {
+                return List.of(take(booking, best, checkIn, checkOut));
+            }
+
+            // No room is free for the whole stay: split it with as few room changes as possible
+            List<RoomAssignment> segments = new ArrayList<>();
+            LocalDate night = checkIn;
+            while (night.isBefore(checkOut)) {
+                Room chosen = null;
+                LocalDate chosenUntil = null;
+                for (Room room : rooms) {
+                    LocalDate freeUntil = freeUntil(taken.get(room.getId()), night);
+                    if (freeUntil != null && (chosenUntil == null || freeUntil.isAfter(chosenUntil))) {
+                        chosen = room;
+                        chosenUntil = freeUntil;
+                    }
+                }
+                if (chosen == null) {
+                    // Every room is taken that night (overbooked); the night stays unassigned
+                    logger.warn("No room free for booking {} on {}", booking.getId(), night);
+                    night = night.plusDays(1);
+                    continue;
+                }
+                LocalDate end = chosenUntil.isAfter(checkOut) ? checkOut : chosenUntil;
+                segments.add(take(booking, chosen, night, end));
+                night = end;
+            }
+            return segments;
+        }
+
+        private RoomAssignment take(Booking booking, Room room, LocalDate start, LocalDate end) {
+            taken.get(room.getId()).put(start, end);
+            return new RoomAssignment(booking, room, start, end);
+        }
+
+        // Null when the night is taken, otherwise the first taken night after it (LocalDate.MAX if none)
+        private static LocalDate freeUntil(TreeMap<LocalDate, LocalDate> runs, LocalDate night) {
+            Map.Entry<LocalDate, LocalDate> previous = runs.floorEntry(night);
+            if (previous != null && previous.getValue().isAfter(night)) {
+                return null;
+            }
+            LocalDate next = runs.higherKey(night);
+            return next != null ? next : LocalDate.MAX;
+        }
+    }
+}
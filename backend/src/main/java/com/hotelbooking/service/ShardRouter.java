@@ -0,0 +1,163 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.config.ShardContext;
+import com.hotelbooking.config.ShardRoutingDataSource;
+import com.hotelbooking.config.ShardingProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+// Runs booking and inventory work on the shard that owns a hotel, and fans cross-shard reads
+// out to every shard in parallel. With a single shard every call runs in place.
+@Service
+public class ShardRouter implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRouter.class);
+
+    private static final List<String> ID_BLOCK_TABLES = List.of("bookings", "payments");
+
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @Autowired
+    private ShardingProperties shardingProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ExecutorService scatterExecutor;
+
+    @PostConstruct
+    void initExecutor() {
+        if (shardCount() > 1) {
+            // Workers carry the caller's security context so replica routing can honour read-your-writes
+            scatterExecutor = new DelegatingSecurityContextExecutorService(Executors.newFixedThreadPool(
+                    Math.max(1, shardingProperties.getScatterThreads()), runnable -> {
+                        Thread thread = new Thread(runnable, "shard-scatter");
+                        thread.setDaemon(true);
+                        return thread;
+                    }));
+        }
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdown();
+        }
+    }
+
+    public int shardCount() {
+        return shardRoutingDataSource.getShardCount();
+    }
+
+    public int shardForHotel(Long hotelId) {
+        return (int) Math.floorMod(hotelId, (long) shardCount());
+    }
+
+    public <T> T inHotelShard(Long hotelId, Supplier<T> work) {
+        return inShard(shardForHotel(hotelId), false, work);
+    }
+
+    public <T> T readInHotelShard(Long hotelId, Supplier<T> work) {
+        return inShard(shardForHotel(hotelId), true, work);
+    }
+
+    public <T> T inShard(int shard, boolean readOnly, Supplier<T> work) {
+        Integer previous = ShardContext.current();
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        if (inTransaction && Objects.equals(previous, shard)) {
+            // Already inside a transaction on this shard
+            return work.get();
+        }
+        if (shardCount() == 1 && inTransaction) {
+            return work.get();
+        }
+
+        ShardContext.set(shard);
+        try {
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setReadOnly(readOnly);
+            template.setName(readOnly ? "ShardRouter.read" : "ShardRouter.write");
+            if (inTransaction) {
+                // The surrounding transaction holds a connection to another shard
+                template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            }
+            return template.execute(status -> work.get());
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    // Runs the same read on every shard in parallel and concatenates the results
+    public <T> List<T> scatterGather(Supplier<List<T>> query) {
+        if (shardCount() == 1) {
+            return inShard(0, true, query);
+        }
+
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>();
+        for (int shard = 0; shard < shardCount(); shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> inShard(target, true, query), scatterExecutor));
+        }
+
+        List<T> results = new ArrayList<>();
+        for (CompletableFuture<List<T>> future : futures) {
+            results.addAll(future.join());
+        }
+        return results;
+    }
+
+    // Booking and payment ids carry their shard: shard i allocates them from i * id-block-size up
+    public int shardForId(Long id) {
+        if (shardCount() == 1) {
+            return 0;
+        }
+        return (int) Math.min(id / shardingProperties.getIdBlockSize(), shardCount() - 1);
+    }
+
+    // Once every singleton, including the schema migration or Hibernate's schema update, is done,
+    // and before the web server starts: a booking taken earlier would get an id from shard 0's block
+    @Override
+    public void afterSingletonsInstantiated() {
+        reserveIdBlocks();
+    }
+
+    public void reserveIdBlocks() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(shardRoutingDataSource);
+        long blockSize = shardingProperties.getIdBlockSize();
+        for (int shard = 1; shard < shardCount(); shard++) {
+            ShardContext.set(shard);
+            try {
+                for (String table : ID_BLOCK_TABLES) {
+                    Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+                    long blockStart = shard * blockSize;
+                    if (maxId != null && maxId < blockStart) {
+                        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (blockStart + 1));
+                        logger.info("Shard {}: {} ids now start at {}", shard, table, blockStart + 1);
+                    }
+                }
+            } finally {
+                ShardContext.set(null);
+            }
+        }
+    }
+}
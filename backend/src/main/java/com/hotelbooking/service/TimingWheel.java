@@ -0,0 +1,249 @@
+package com.hotelbooking.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+// Hierarchical timing wheel: O(1) schedule and cancel per timer, and one worker thread that only
+// wakes when a bucket of timers is due instead of scanning timers. Level 0 has wheelSize buckets
+// of tickMs each; every higher level ticks once per span of the level below, so a few levels of
+// fixed-size buckets reach days ahead. A due bucket is drained and each of its timers either fires
+// or drops to a finer level. Timers fire no earlier than their expiry and at most one tick late.
+public class TimingWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimingWheel.class);
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final LongConsumer onExpire;
+
+    private final DelayQueue<Bucket> dueBuckets = new DelayQueue<>();
+    private final Map<Long, Timeout> timeouts = new ConcurrentHashMap<>();
+
+    // Scheduling takes the read lock; advancing the clock and draining buckets take the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Level root;
+
+    private Thread worker;
+
+    public TimingWheel(long tickMs, int wheelSize, LongConsumer onExpire) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.onExpire = onExpire;
+        this.root = new Level(tickMs, System.currentTimeMillis());
+    }
+
+    public void start() {
+        worker = new Thread(this::run, "timing-wheel");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void stop() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    // Replaces any timer already scheduled under the key
+    public void schedule(long key, long expiresAtMs) {
+        // Rounded up to a tick so a timer never fires before its expiry
+        long expiration = Math.floorDiv(expiresAtMs + tickMs - 1, tickMs) * tickMs;
+        Timeout timeout = new Timeout(key, expiration);
+        Timeout previous = timeouts.put(key, timeout);
+        if (previous != null) {
+            previous.remove();
+        }
+
+        lock.readLock().lock();
+        try {
+            addOrFire(timeout);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void cancel(long key) {
+        Timeout timeout = timeouts.remove(key);
+        if (timeout != null) {
+            timeout.remove();
+        }
+    }
+
+    public int size() {
+        return timeouts.size();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Bucket bucket = dueBuckets.take();
+                lock.writeLock().lock();
+                try {
+                    while (bucket != null) {
+                        root.advanceClock(bucket.getExpiration());
+                        for (Timeout timeout : bucket.drain()) {
+                            addOrFire(timeout);
+                        }
+                        bucket = dueBuckets.poll();
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void addOrFire(Timeout timeout) {
+        if (root.add(timeout)) {
+            return;
+        }
+        // Due now; a timer cancelled or replaced meanwhile is dropped
+        if (timeouts.remove(timeout.key, timeout)) {
+            try {
+                onExpire.accept(timeout.key);
+            } catch (Exception e) {
+                logger.error("Timer {} failed: {}", timeout.key, e.getMessage());
+            }
+        }
+    }
+
+    private final class Level {
+
+        private final long tick;
+        private final long interval;
+        private final Bucket[] buckets;
+        private long currentTime;
+        private volatile Level overflow;
+
+        Level(long tick, long startMs) {
+            this.tick = tick;
+            this.interval = tick * wheelSize;
+            this.buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new Bucket();
+            }
+            this.currentTime = startMs - startMs % tick;
+        }
+
+        // False when the timer is already due
+        boolean add(Timeout timeout) {
+            long expiration = timeout.expiration;
+            if (expiration < currentTime + tick) {
+                return false;
+            }
+            if (expiration < currentTime + interval) {
+                long virtualId = expiration / tick;
+                Bucket bucket = buckets[(int) (virtualId % wheelSize)];
+                bucket.add(timeout);
+                // A bucket is queued once per round of the wheel
+                if (bucket.setExpiration(virtualId * tick)) {
+                    dueBuckets.offer(bucket);
+                }
+                return true;
+            }
+            return overflow().add(timeout);
+        }
+
+        void advanceClock(long timeMs) {
+            if (timeMs >= currentTime + tick) {
+                currentTime = timeMs - timeMs % tick;
+                Level next = overflow;
+                if (next != null) {
+                    next.advanceClock(currentTime);
+                }
+            }
+        }
+
+        private Level overflow() {
+            Level next = overflow;
+            if (next == null) {
+                synchronized (this) {
+                    next = overflow;
+                    if (next == null) {
+                        next = new Level(interval, currentTime);
+                        overflow = next;
+                    }
+                }
+            }
+            return next;
+        }
+    }
+
+    private static final class Bucket implements Delayed {
+
+        private final Set<Timeout> timeouts = ConcurrentHashMap.newKeySet();
+        private final AtomicLong expiration = new AtomicLong(-1);
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeouts.add(timeout);
+        }
+
+        void remove(Timeout timeout) {
+            timeouts.remove(timeout);
+        }
+
+        boolean setExpiration(long expirationMs) {
+            return expiration.getAndSet(expirationMs) != expirationMs;
+        }
+
+        long getExpiration() {
+            return expiration.get();
+        }
+
+        List<Timeout> drain() {
+            List<Timeout> drained = new ArrayList<>(timeouts);
+            timeouts.clear();
+            for (Timeout timeout : drained) {
+                timeout.bucket = null;
+            }
+            expiration.set(-1);
+            return drained;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Math.max(expiration.get() - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiration.get(), ((Bucket) other).expiration.get());
+        }
+    }
+
+    private static final class Timeout {
+
+        private final long key;
+        private final long expiration;
+        private volatile Bucket bucket;
+
+        Timeout(long key, long expiration) {
+            this.key = key;
+            this.expiration = expiration;
+        }
+
+        void remove() {
+            Bucket current = bucket;
+            if (current != null) {
+                current.remove(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+-- Baseline schema matching the JPA entities (previously created by ddl-auto: update)
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    phone VARCHAR(255),
+    profile_picture VARCHAR(255),
+    date_of_birth VARCHAR(255),
+    address VARCHAR(255),
+    city VARCHAR(255),
+    state VARCHAR(255),
+    postal_code VARCHAR(255),
+    country VARCHAR(255),
+    emergency_contact_name VARCHAR(255),
+    emergency_contact_phone VARCHAR(255),
+    preferred_language VARCHAR(255),
+    notification_preferences VARCHAR(255),
+    role VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE hotels (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description TEXT,
+    address VARCHAR(255),
+    city VARCHAR(255),
+    country VARCHAR(255),
+    latitude NUMERIC(10, 8),
+    longitude NUMERIC(11, 8),
+    star_rating INTEGER,
+    amenities JSON,
+    main_image_url VARCHAR(255),
+    image_urls JSON,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6)
+);
+
+CREATE TABLE room_types (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    hotel_id BIGINT NOT NULL REFERENCES hotels (id),
+    name VARCHAR(255) NOT NULL,
+    description TEXT,
+    capacity INTEGER NOT NULL,
+    base_price NUMERIC(10, 2) NOT NULL,
+    amenities JSON,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6)
+);
+
+CREATE TABLE rooms (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    room_type_id BIGINT NOT NULL REFERENCES room_types (id),
+    room_number VARCHAR(255) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6)
+);
+
+CREATE TABLE room_availability (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    room_type_id BIGINT NOT NULL REFERENCES room_types (id),
+    availability_date DATE NOT NULL,
+    available_rooms INTEGER NOT NULL,
+    price_override NUMERIC(10, 2),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    CONSTRAINT uk_room_availability_room_type_date UNIQUE (room_type_id, availability_date)
+);
+
+CREATE TABLE bookings (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    hotel_id BIGINT NOT NULL REFERENCES hotels (id),
+    room_type_id BIGINT NOT NULL REFERENCES room_types (id),
+    confirmation_number VARCHAR(255) NOT NULL,
+    check_in_date DATE NOT NULL,
+    check_out_date DATE NOT NULL,
+    guest_count INTEGER NOT NULL,
+    total_amount NUMERIC(10, 2) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    CONSTRAINT uk_bookings_confirmation_number UNIQUE (confirmation_number)
+);
+
+CREATE TABLE payments (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    booking_id BIGINT NOT NULL REFERENCES bookings (id),
+    amount NUMERIC(10, 2) NOT NULL,
+    payment_method VARCHAR(255) NOT NULL,
+    transaction_id VARCHAR(255),
+    status VARCHAR(255) NOT NULL,
+    processed_at TIMESTAMP(6),
+    created_at TIMESTAMP(6),
+    CONSTRAINT uk_payments_booking UNIQUE (booking_id)
+);
+
+CREATE TABLE reviews (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    hotel_id BIGINT NOT NULL REFERENCES hotels (id),
+    booking_id BIGINT NOT NULL REFERENCES bookings (id),
+    rating INTEGER NOT NULL,
+    comment TEXT,
+    created_at TIMESTAMP(6),
+    CONSTRAINT uk_reviews_booking UNIQUE (booking_id)
+);
+
+-- PostgreSQL does not index foreign keys on its own; these back the joins and the
+-- parent-side lookups (rooms of a type, room types of a hotel, reviews of a hotel)
+CREATE INDEX idx_room_types_hotel ON room_types (hotel_id);
+CREATE INDEX idx_rooms_room_type ON rooms (room_type_id);
+CREATE INDEX idx_bookings_user ON bookings (user_id);
+CREATE INDEX idx_bookings_hotel ON bookings (hotel_id);
+CREATE INDEX idx_bookings_room_type ON bookings (room_type_id);
+CREATE INDEX idx_reviews_user ON reviews (user_id);
+CREATE INDEX idx_reviews_hotel ON reviews (hotel_id);
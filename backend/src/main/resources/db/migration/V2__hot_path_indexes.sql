@@ -0,0 +1,33 @@
+-- Composite indexes for the repository queries on the booking, availability and payment paths
+
+-- findConflictingBookings, countBookingsForDate, findByRoomTypeIdAndStatusIn: equality on the
+-- room type and status, then the stay range
+CREATE INDEX idx_bookings_room_type_status_dates
+    ON bookings (room_type_id, status, check_in_date, check_out_date);
+DROP INDEX idx_bookings_room_type;
+
+-- findByUserIdOrderByCreatedAtDesc and findByUserIdAndStatus read a user's bookings newest first
+CREATE INDEX idx_bookings_user_created ON bookings (user_id, created_at);
+DROP INDEX idx_bookings_user;
+
+-- findByStatus / findWithDetailsByStatus
+CREATE INDEX idx_bookings_status ON bookings (status, check_in_date);
+
+-- findByProcessedAtBetween, findByStatus, findByTransactionId
+CREATE INDEX idx_payments_processed_at ON payments (processed_at);
+CREATE INDEX idx_payments_status ON payments (status);
+CREATE INDEX idx_payments_transaction ON payments (transaction_id);
+
+-- findByHotelIdAndPriceRange, findByHotelIdOrderByPriceAsc and findMinBasePricePerHotel
+-- (index-only); also serves every hotel_id lookup
+CREATE INDEX idx_room_types_hotel_price ON room_types (hotel_id, base_price);
+DROP INDEX idx_room_types_hotel;
+
+-- findByStarRatingBetween and the star rating filter of the hotel search
+CREATE INDEX idx_hotels_star_rating ON hotels (star_rating);
+
+-- findByRole / countByRole
+CREATE INDEX idx_users_role ON users (role);
+
+-- room_availability(room_type_id, availability_date) is already served by the unique constraint
+-- from V1. The LIKE '%...%' searches on hotel and user names cannot use a b-tree index.
@@ -0,0 +1,17 @@
+-- Physical rooms per booking, one row per run of nights [start_date, end_date) in the same room
+
+CREATE TABLE room_assignments (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    booking_id BIGINT NOT NULL REFERENCES bookings (id),
+    room_id BIGINT NOT NULL REFERENCES rooms (id),
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    created_at TIMESTAMP(6)
+);
+
+CREATE INDEX idx_room_assignments_booking ON room_assignments (booking_id);
+CREATE INDEX idx_room_assignments_room_dates ON room_assignments (room_id, start_date, end_date);
+
+-- findAssignableRooms filters a room type's rooms by status
+CREATE INDEX idx_rooms_room_type_status ON rooms (room_type_id, status);
+DROP INDEX idx_rooms_room_type;
@@ -0,0 +1,2 @@
+-- Expiry of PENDING checkout holds (NULL once a hold is confirmed, released or expired)
+ALTER TABLE bookings ADD COLUMN hold_expires_at TIMESTAMP(6);
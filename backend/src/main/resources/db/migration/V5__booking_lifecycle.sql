@@ -0,0 +1,10 @@
+-- Progress of the scheduled lifecycle transitions, one row per transition on each shard.
+-- last_booking_id is the last id scanned by an unfinished run (0 when the last run finished).
+CREATE TABLE booking_lifecycle_checkpoints (
+    transition VARCHAR(50) PRIMARY KEY,
+    last_booking_id BIGINT NOT NULL,
+    updated_at TIMESTAMP(6)
+);
+
+-- The lifecycle processor walks each status in id order
+CREATE INDEX idx_bookings_status_id ON bookings (status, id);
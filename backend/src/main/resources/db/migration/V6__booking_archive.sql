@@ -0,0 +1,49 @@
+-- Cold storage for finished stays, filled by BookingArchivalService. Rows keep their original ids
+-- and only reference the reference-data tables, so the hot tables can be trimmed freely.
+
+CREATE TABLE bookings_archive (
+    id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    hotel_id BIGINT NOT NULL REFERENCES hotels (id),
+    room_type_id BIGINT NOT NULL REFERENCES room_types (id),
+    confirmation_number VARCHAR(255) NOT NULL,
+    check_in_date DATE NOT NULL,
+    check_out_date DATE NOT NULL,
+    guest_count INTEGER NOT NULL,
+    total_amount NUMERIC(10, 2) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    archived_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE UNIQUE INDEX uk_bookings_archive_confirmation_number ON bookings_archive (confirmation_number);
+CREATE INDEX idx_bookings_archive_user ON bookings_archive (user_id);
+
+CREATE TABLE payments_archive (
+    id BIGINT PRIMARY KEY,
+    booking_id BIGINT NOT NULL,
+    amount NUMERIC(10, 2) NOT NULL,
+    payment_method VARCHAR(255) NOT NULL,
+    transaction_id VARCHAR(255),
+    status VARCHAR(255) NOT NULL,
+    processed_at TIMESTAMP(6),
+    created_at TIMESTAMP(6),
+    archived_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_payments_archive_booking ON payments_archive (booking_id);
+
+CREATE TABLE reviews_archive (
+    id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    hotel_id BIGINT NOT NULL,
+    booking_id BIGINT NOT NULL,
+    rating INTEGER NOT NULL,
+    comment TEXT,
+    created_at TIMESTAMP(6),
+    archived_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_reviews_archive_booking ON reviews_archive (booking_id);
+CREATE INDEX idx_reviews_archive_hotel ON reviews_archive (hotel_id);
@@ -0,0 +1,4 @@
+-- Rooms on sale per room type for properties without individual rooms; InventoryService seeds
+-- room_availability rows from it (or from the count of rooms) minus the stays already booked
+
+ALTER TABLE room_types ADD COLUMN total_rooms INTEGER DEFAULT 10 NOT NULL;
@@ -0,0 +1,6 @@
+-- Inventory never goes below zero: nights seeded while overbooked, or left over from a reduced
+-- total_rooms, start at zero instead
+
+UPDATE room_availability SET available_rooms = 0 WHERE available_rooms < 0;
+
+ALTER TABLE room_availability ADD CONSTRAINT ck_room_availability_non_negative CHECK (available_rooms >= 0);
@@ -0,0 +1,34 @@
+package com.hotelbooking.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConfirmationNumberConfigTest {
+
+    @Test
+    void startupFailsWithoutANodeId() {
+        assertThatThrownBy(() -> configure("")).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("not set");
+        assertThatThrownBy(() -> configure(null)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void startupFailsOnAnInvalidNodeId() {
+        assertThatThrownBy(() -> configure("node-a")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> configure("1024")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void aValidNodeIdIsAccepted() {
+        assertThatCode(() -> configure("1")).doesNotThrowAnyException();
+    }
+
+    private static void configure(String nodeId) {
+        ConfirmationNumberConfig config = new ConfirmationNumberConfig();
+        ReflectionTestUtils.setField(config, "nodeId", nodeId);
+        config.configureGenerator();
+    }
+}
@@ -0,0 +1,27 @@
+package com.hotelbooking.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotelControllerTest {
+
+    @Test
+    void gzipIsAcceptedWhenListedOrCoveredByWildcard() {
+        assertThat(HotelController.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(HotelController.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(HotelController.acceptsGzip("*")).isTrue();
+        assertThat(HotelController.acceptsGzip("x-gzip")).isTrue();
+    }
+
+    @Test
+    void gzipIsRefusedWhenAbsentOrGivenQualityZero() {
+        assertThat(HotelController.acceptsGzip(null)).isFalse();
+        assertThat(HotelController.acceptsGzip("identity")).isFalse();
+        assertThat(HotelController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(HotelController.acceptsGzip("gzip; q=0.000, deflate")).isFalse();
+        // An explicit gzip entry overrides the wildcard either way
+        assertThat(HotelController.acceptsGzip("*, gzip;q=0")).isFalse();
+        assertThat(HotelController.acceptsGzip("*;q=0, gzip")).isTrue();
+    }
+}
@@ -0,0 +1,87 @@
+package com.hotelbooking.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Checks that a typed batch encodes to the same JSON as the maps the notifications used to send
+class HotelEventBatchTest {
+
+    private static final int EVENTS_PER_HOTEL = 20;
+
+    // Configured like the ObjectMapper Spring Boot injects
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final LocalDate night = LocalDate.of(2026, 12, 24);
+
+    @Test
+    void typedBatchKeepsTheJsonShapeOfTheMapPayload() throws Exception {
+        HotelEventBatch batch = new HotelEventBatch("HOTEL_EVENTS", 7L, typedEvents(7L, 42L), 42L);
+
+        assertThat(objectMapper.readTree(objectMapper.writeValueAsBytes(batch)))
+                .isEqualTo(objectMapper.readTree(objectMapper.writeValueAsBytes(mapBatch(7L, 42L))));
+    }
+
+    private List<HotelEvent> typedEvents(Long hotelId, long timestamp) {
+        List<HotelEvent> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS_PER_HOTEL / 4; i++) {
+            events.add(new HotelEvent.PriceUpdated(hotelId, "Deluxe " + i, 5000.0 + i, night.plusDays(i), timestamp));
+            events.add(new HotelEvent.PriceUpdated(hotelId, "Suite " + i, 9000.0 + i, null, timestamp));
+            events.add(new HotelEvent.AvailabilityUpdated(hotelId, "Deluxe " + i, i % 2 == 0, timestamp));
+            events.add(new HotelEvent.HotelUpdated(hotelId, "UPDATE_" + i, timestamp));
+        }
+        return events;
+    }
+
+    // The payload NotificationService built before the events were typed
+    private Map<String, Object> mapBatch(Long hotelId, long timestamp) {
+        List<Map<String, Object>> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS_PER_HOTEL / 4; i++) {
+            Map<String, Object> datedPrice = new HashMap<>();
+            datedPrice.put("type", "PRICE_UPDATE");
+            datedPrice.put("hotelId", hotelId);
+            datedPrice.put("roomType", "Deluxe " + i);
+            datedPrice.put("newPrice", 5000.0 + i);
+            datedPrice.put("date", night.plusDays(i).toString());
+            datedPrice.put("timestamp", timestamp);
+            events.add(datedPrice);
+
+            Map<String, Object> price = new HashMap<>();
+            price.put("type", "PRICE_UPDATE");
+            price.put("hotelId", hotelId);
+            price.put("roomType", "Suite " + i);
+            price.put("newPrice", 9000.0 + i);
+            price.put("timestamp", timestamp);
+            events.add(price);
+
+            Map<String, Object> availability = new HashMap<>();
+            availability.put("type", "AVAILABILITY_UPDATE");
+            availability.put("hotelId", hotelId);
+            availability.put("roomType", "Deluxe " + i);
+            availability.put("available", i % 2 == 0);
+            availability.put("timestamp", timestamp);
+            events.add(availability);
+
+            Map<String, Object> update = new HashMap<>();
+            update.put("type", "HOTEL_UPDATE");
+            update.put("hotelId", hotelId);
+            update.put("updateType", "UPDATE_" + i);
+            update.put("timestamp", timestamp);
+            events.add(update);
+        }
+
+        Map<String, Object> message = new HashMap<>();
+        message.put("type", "HOTEL_EVENTS");
+        message.put("hotelId", hotelId);
+        message.put("events", events);
+        message.put("timestamp", timestamp);
+        return message;
+    }
+}
@@ -0,0 +1,104 @@
+package com.hotelbooking.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Checks that concurrent generation never repeats a number and that the node id is carried in
+// every number
+class ConfirmationNumberGeneratorTest {
+
+    private static final String CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 100_000;
+
+    @AfterEach
+    void resetNodeId() {
+        ConfirmationNumberGenerator.setNodeId(1);
+    }
+
+    @Test
+    void concurrentCallsNeverCollide() throws Exception {
+        ConfirmationNumberGenerator.setNodeId(5);
+
+        List<List<String>> batches = generateConcurrently(THREADS, PER_THREAD);
+
+        Set<String> seen = new HashSet<>();
+        for (List<String> batch : batches) {
+            seen.addAll(batch);
+            // Numbers from one node are strictly increasing, also within each thread
+            for (int i = 1; i < batch.size(); i++) {
+                assertThat(batch.get(i)).isGreaterThan(batch.get(i - 1));
+            }
+        }
+        assertThat(seen).hasSize(THREADS * PER_THREAD);
+    }
+
+    @Test
+    void everyNumberCarriesItsNodeId() {
+        // Two nodes can produce the same timestamp and sequence bits; the node id bits keep their
+        // numbers apart
+        ConfirmationNumberGenerator.setNodeId(3);
+        String first = ConfirmationNumberGenerator.next();
+        ConfirmationNumberGenerator.setNodeId(4);
+        String second = ConfirmationNumberGenerator.next();
+
+        assertThat(nodeId(first)).isEqualTo(3);
+        assertThat(nodeId(second)).isEqualTo(4);
+        assertThat(first).hasSize(15).startsWith("HB");
+        assertThat(first).isNotEqualTo(second);
+
+        ConfirmationNumberGenerator.setNodeId(ConfirmationNumberGenerator.MAX_NODE_ID);
+        assertThat(nodeId(ConfirmationNumberGenerator.next())).isEqualTo(ConfirmationNumberGenerator.MAX_NODE_ID);
+    }
+
+    @Test
+    void nodeIdsOutsideTenBitsAreRefused() {
+        assertThatThrownBy(() -> ConfirmationNumberGenerator.setNodeId(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ConfirmationNumberGenerator.setNodeId(ConfirmationNumberGenerator.MAX_NODE_ID + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<List<String>> generateConcurrently(int threads, int perThread) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                List<String> batch = new ArrayList<>(perThread);
+                for (int i = 0; i < perThread; i++) {
+                    batch.add(ConfirmationNumberGenerator.next());
+                }
+                return batch;
+            }));
+        }
+        start.countDown();
+        List<List<String>> batches = new ArrayList<>();
+        for (Future<List<String>> future : futures) {
+            batches.add(future.get());
+        }
+        pool.shutdown();
+        return batches;
+    }
+
+    // Bits 12-21 of the decoded value
+    private static int nodeId(String confirmationNumber) {
+        long value = 0;
+        for (char c : confirmationNumber.substring(2).toCharArray()) {
+            value = value << 5 | CROCKFORD.indexOf(c);
+        }
+        return (int) (value >>> 12 & ConfirmationNumberGenerator.MAX_NODE_ID);
+    }
+}
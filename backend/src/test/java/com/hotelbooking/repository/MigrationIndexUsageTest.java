@@ -0,0 +1,116 @@
+package com.hotelbooking.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Migrates a PostgreSQL container to the latest schema and checks with EXPLAIN that the hot path
+// queries can run on the V2 indexes. Sequential scans are switched off so the plan shows which
+// index the planner picks rather than a table scan of the empty tables. Skipped without Docker.
+@Testcontainers(disabledWithoutDocker = true)
+class MigrationIndexUsageTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+    }
+
+    @Test
+    void bookingAvailabilityQueriesUseTheRoomTypeStatusDatesIndex() throws SQLException {
+        // findConflictingBookings
+        assertUsesIndex("SELECT * FROM bookings b WHERE b.room_type_id = 1 AND b.check_in_date < DATE '2026-01-05' "
+                + "AND b.check_out_date > DATE '2026-01-01' AND b.status IN ('CONFIRMED', 'PENDING')",
+                "idx_bookings_room_type_status_dates");
+        // countBookingsForDate
+        assertUsesIndex("SELECT COUNT(b.id) FROM bookings b WHERE b.room_type_id = 1 AND b.check_in_date <= DATE '2026-01-01' "
+                + "AND b.check_out_date > DATE '2026-01-01' AND b.status IN ('CONFIRMED', 'PENDING')",
+                "idx_bookings_room_type_status_dates");
+    }
+
+    @Test
+    void userBookingsUseTheUserCreatedIndex() throws SQLException {
+        // findByUserIdOrderByCreatedAtDesc
+        assertUsesIndex("SELECT * FROM bookings b WHERE b.user_id = 1 ORDER BY b.created_at DESC",
+                "idx_bookings_user_created");
+    }
+
+    @Test
+    void bookingsByStatusUseAStatusIndex() throws SQLException {
+        // findByStatus; V5's (status, id) index serves the same lookup, so either may be chosen
+        String plan = explain("SELECT * FROM bookings b WHERE b.status = 'CONFIRMED'");
+        assertThat(usesIndex(plan, "idx_bookings_status") || usesIndex(plan, "idx_bookings_status_id"))
+                .as(plan).isTrue();
+    }
+
+    @Test
+    void paymentLookupsUseThePaymentIndexes() throws SQLException {
+        // findByProcessedAtBetween, findByTransactionId, findByStatus
+        assertUsesIndex("SELECT * FROM payments p WHERE p.processed_at >= TIMESTAMP '2026-01-01 00:00' "
+                + "AND p.processed_at <= TIMESTAMP '2026-02-01 00:00'", "idx_payments_processed_at");
+        assertUsesIndex("SELECT * FROM payments p WHERE p.transaction_id = 'TXN-1'", "idx_payments_transaction");
+        assertUsesIndex("SELECT * FROM payments p WHERE p.status = 'COMPLETED'", "idx_payments_status");
+    }
+
+    @Test
+    void roomTypePriceQueriesUseTheHotelPriceIndex() throws SQLException {
+        // findByHotelIdAndPriceRange, findByHotelIdOrderByPriceAsc
+        assertUsesIndex("SELECT * FROM room_types rt WHERE rt.hotel_id = 1 AND rt.base_price >= 1000 "
+                + "AND rt.base_price <= 5000", "idx_room_types_hotel_price");
+        assertUsesIndex("SELECT * FROM room_types rt WHERE rt.hotel_id = 1 ORDER BY rt.base_price ASC",
+                "idx_room_types_hotel_price");
+        // findMinBasePricePerHotel reads only the index
+        String plan = explain("SELECT rt.hotel_id, MIN(rt.base_price) FROM room_types rt GROUP BY rt.hotel_id");
+        assertThat(plan).as(plan).contains("Index Only Scan using idx_room_types_hotel_price");
+    }
+
+    @Test
+    void hotelAndUserFiltersUseTheirIndexes() throws SQLException {
+        // findByStarRatingBetween, findByRole
+        assertUsesIndex("SELECT * FROM hotels h WHERE h.star_rating >= 3 AND h.star_rating <= 5", "idx_hotels_star_rating");
+        assertUsesIndex("SELECT * FROM users u WHERE u.role = 'CUSTOMER'", "idx_users_role");
+    }
+
+    private static void assertUsesIndex(String sql, String index) throws SQLException {
+        String plan = explain(sql);
+        assertThat(usesIndex(plan, index)).as("%s%n%s", sql, plan).isTrue();
+    }
+
+    // "Index Scan using idx on ..." or "Bitmap Index Scan on idx", and not a longer name sharing the prefix
+    private static boolean usesIndex(String plan, String index) {
+        return Pattern.compile("(using|Index Scan on) " + Pattern.quote(index) + "\\s").matcher(plan).find();
+    }
+
+    private static String explain(String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(),
+                postgres.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("SET enable_seqscan = off");
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rows = statement.executeQuery("EXPLAIN " + sql)) {
+                while (rows.next()) {
+                    plan.append(rows.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.dto.GroupBookingRequest;
+import com.hotelbooking.model.Booking;
+import com.hotelbooking.model.BookingStatus;
+import com.hotelbooking.model.Hotel;
+import com.hotelbooking.model.RoomType;
+import com.hotelbooking.model.User;
+import com.hotelbooking.repository.BookingRepository;
+import com.hotelbooking.repository.HotelRepository;
+import com.hotelbooking.repository.RoomAvailabilityRepository;
+import com.hotelbooking.repository.RoomTypeRepository;
+import com.hotelbooking.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 200 rooms sold concurrently through group bookings, direct bookings and holds: every path takes
+// the same room type lock and inventory rows, so the type is never oversold and the rows agree
+// with the bookings afterwards
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:group-booking-load;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.hotelbooking=INFO",
+        "logging.level.org.springframework.security=INFO",
+        "confirmation-numbers.node-id=1",
+        "quotes.signing-key=quoteSigningKeyForTestsOnlyThatIsLongEnoughForHmacSha512Signatures12345"
+})
+class GroupBookingConcurrencyTest {
+
+    private static final int ROOMS = 200;
+
+    @Autowired
+    private GroupBookingService groupBookingService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private RoomTypeRepository roomTypeRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RoomAvailabilityRepository roomAvailabilityRepository;
+
+    @MockBean
+    private EmailService emailService;
+
+    private User guest;
+    private Hotel hotel;
+    private RoomType roomType;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+
+    @BeforeEach
+    void setUp() {
+        guest = userRepository.findByEmail("customer@example.com").orElseThrow();
+        hotel = hotelRepository.findAll().get(0);
+        roomType = new RoomType(hotel, "Load Test Room " + System.nanoTime(), "Concurrency test inventory",
+                2, new BigDecimal("5000.00"), "[]");
+        roomType.setTotalRooms(ROOMS);
+        roomType = roomTypeRepository.save(roomType);
+        checkIn = LocalDate.now().plusDays(30);
+        checkOut = checkIn.plusDays(3);
+    }
+
+    @Test
+    void twoHundredRoomsAreNeverOversoldAcrossAllBookingPaths() throws Exception {
+        List<Callable<Integer>> attempts = new ArrayList<>();
+        // 360 rooms asked for in total
+        for (int i = 0; i < 30; i++) {
+            attempts.add(() -> groupBookingService.createGroupBooking(guest.getId(), hotel.getId(),
+                    List.of(roomRequest(10))).size());
+        }
+        for (int i = 0; i < 40; i++) {
+            attempts.add(() -> {
+                bookingService.createBooking(guest.getId(), hotel.getId(), roomType.getId(),
+                        checkIn, checkOut, 2, "CREDIT_CARD");
+                return 1;
+            });
+        }
+        for (int i = 0; i < 20; i++) {
+            attempts.add(() -> {
+                holdService.placeHold(guest.getId(), hotel.getId(), roomType.getId(), checkIn, checkOut, 2, null);
+                return 1;
+            });
+        }
+
+        int booked = runConcurrently(attempts);
+
+        assertThat(booked).isLessThanOrEqualTo(ROOMS);
+        assertThat(activeBookings()).isEqualTo(booked);
+        assertRemaining(ROOMS - booked);
+
+        // Whatever the race left over can still be sold, one room at a time, and no more
+        for (int i = booked; i < ROOMS; i++) {
+            bookingService.createBooking(guest.getId(), hotel.getId(), roomType.getId(), checkIn, checkOut, 2, "CREDIT_CARD");
+        }
+        assertThatThrownBy(() -> bookingService.createBooking(guest.getId(), hotel.getId(), roomType.getId(),
+                checkIn, checkOut, 2, "CREDIT_CARD"))
+                .hasMessageContaining("not available");
+        assertThat(activeBookings()).isEqualTo(ROOMS);
+        assertRemaining(0);
+    }
+
+    @Test
+    void aGroupThatDoesNotFitBooksNothing() {
+        bookingService.createBooking(guest.getId(), hotel.getId(), roomType.getId(), checkIn, checkOut, 2, "CREDIT_CARD");
+
+        assertThatThrownBy(() -> groupBookingService.createGroupBooking(guest.getId(), hotel.getId(),
+                List.of(roomRequest(ROOMS))))
+                .hasMessageContaining("Not enough");
+        assertThat(activeBookings()).isEqualTo(1);
+        assertRemaining(ROOMS - 1);
+
+        List<Booking> group = groupBookingService.createGroupBooking(guest.getId(), hotel.getId(),
+                List.of(roomRequest(ROOMS - 1)));
+        assertThat(group).hasSize(ROOMS - 1);
+        assertRemaining(0);
+    }
+
+    private GroupBookingRequest.RoomRequest roomRequest(int quantity) {
+        GroupBookingRequest.RoomRequest request = new GroupBookingRequest.RoomRequest();
+        request.setRoomTypeId(roomType.getId());
+        request.setCheckInDate(checkIn);
+        request.setCheckOutDate(checkOut);
+        request.setGuestCount(2);
+        request.setQuantity(quantity);
+        return request;
+    }
+
+    // Rooms booked by the attempts that succeeded; sold-out attempts count as zero
+    private static int runConcurrently(List<Callable<Integer>> attempts) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (Callable<Integer> attempt : attempts) {
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    return attempt.call();
+                } catch (RuntimeException e) {
+                    return 0;
+                }
+            }));
+        }
+        start.countDown();
+
+        int booked = 0;
+        for (Future<Integer> result : results) {
+            try {
+                booked += result.get();
+            } catch (Exception e) {
+                throw new AssertionError("Booking attempt failed unexpectedly", e);
+            }
+        }
+        pool.shutdown();
+        return booked;
+    }
+
+    private long activeBookings() {
+        return bookingRepository.findByRoomTypeIdAndStatusIn(roomType.getId(),
+                List.of(BookingStatus.CONFIRMED, BookingStatus.PENDING)).size();
+    }
+
+    private void assertRemaining(int rooms) {
+        List<Object[]> rows = roomAvailabilityRepository.findRemaining(roomType.getId(), checkIn, checkOut);
+        assertThat(rows).hasSize(3);
+        for (Object[] row : rows) {
+            assertThat(row[1]).as("rooms left on %s", row[0]).isEqualTo(rooms);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.hotelbooking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceTest {
+
+    private static final int RETRIES = 20;
+
+    private final Map<String, Object> request = Map.of("roomTypeId", 7, "guestCount", 2);
+
+    private IdempotencyService idempotencyService;
+    private ExecutorService pool;
+    // Counted down by every retry that blocks on the first one
+    private CountDownLatch waiting;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService();
+        ReflectionTestUtils.setField(idempotencyService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(idempotencyService, "ttlMinutes", 60L);
+        ReflectionTestUtils.setField(idempotencyService, "maxKeys", 1000L);
+        ReflectionTestUtils.setField(idempotencyService, "waitSeconds", 10L);
+        waiting = new CountDownLatch(RETRIES - 1);
+        ReflectionTestUtils.setField(idempotencyService, "onWait", (Runnable) () -> waiting.countDown());
+        idempotencyService.initStore();
+        pool = Executors.newFixedThreadPool(RETRIES);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void concurrentRetriesRunTheWorkOnce() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submitRetries(() -> {
+            runs.incrementAndGet();
+            await(release);
+            return "booking-1";
+        });
+        // Every retry but the one running the work is waiting before it finishes
+        assertThat(waiting.await(10, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("booking-1");
+        }
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void anErrorReachesWaitingRetriesAndFreesTheKey() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submitRetries(() -> {
+            runs.incrementAndGet();
+            await(release);
+            throw new OutOfMemoryError("simulated");
+        });
+        assertThat(waiting.await(10, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(10, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(OutOfMemoryError.class);
+        }
+        assertThat(runs).hasValue(1);
+
+        // The failed execution was forgotten, so the next retry runs the work again
+        assertThat(idempotencyService.execute("create-booking", 1L, "key-1", request, () -> "booking-2"))
+                .isEqualTo("booking-2");
+        assertThat(idempotencyService.execute("create-booking", 1L, "key-1", request, () -> "booking-3"))
+                .isEqualTo("booking-2");
+    }
+
+    @Test
+    void aRunningRequestIsNotEvictedByCompletedOnes() throws Exception {
+        ReflectionTestUtils.setField(idempotencyService, "maxKeys", 1L);
+        idempotencyService.initStore();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<String> work = () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "booking-1";
+        };
+
+        Future<String> first = pool.submit(() -> idempotencyService.execute("create-booking", 1L, "key-1", request, work));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        // More completed keys than the store holds
+        for (int i = 2; i <= 5; i++) {
+            int booking = i;
+            idempotencyService.execute("create-booking", 1L, "key-" + i, request, () -> "booking-" + booking);
+        }
+        waiting = new CountDownLatch(1);
+        Future<String> retry = pool.submit(() -> idempotencyService.execute("create-booking", 1L, "key-1", request, work));
+        // Had the first execution been evicted, the retry would run the work and block instead
+        assertThat(waiting.await(10, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+
+        assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("booking-1");
+        assertThat(retry.get(10, TimeUnit.SECONDS)).isEqualTo("booking-1");
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void aKeyReusedForAnotherRequestIsRefused() {
+        idempotencyService.execute("create-booking", 1L, "key-1", request, () -> "booking-1");
+
+        assertThatThrownBy(() -> idempotencyService.execute("create-booking", 1L, "key-1",
+                Map.of("roomTypeId", 8), () -> "booking-2"))
+                .hasMessageContaining("different request");
+    }
+
+    private List<Future<String>> submitRetries(Supplier<String> work) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < RETRIES; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return idempotencyService.execute("create-booking", 1L, "key-1", request, work);
+            }));
+        }
+        start.countDown();
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.repository.ShardedBookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Checks the segment tree against a scan over the same stays
+class OccupancyIndexServiceTest {
+
+    private static final int ROOM_TYPES = 50;
+    private static final int STAYS = 100_000;
+
+    private final Random random = new Random(42);
+    private final LocalDate today = LocalDate.now();
+
+    private ShardedBookingRepository shardedBookingRepository;
+    private OccupancyIndexService occupancyIndexService;
+    private List<Object[]> stays;
+
+    @BeforeEach
+    void setUp() {
+        stays = new ArrayList<>();
+        for (int i = 0; i < STAYS; i++) {
+            stays.add(randomStay());
+        }
+        shardedBookingRepository = mock(ShardedBookingRepository.class);
+        when(shardedBookingRepository.findActiveStaysEndingAfter(any())).thenAnswer(invocation -> stays);
+
+        occupancyIndexService = new OccupancyIndexService();
+        ReflectionTestUtils.setField(occupancyIndexService, "shardedBookingRepository", shardedBookingRepository);
+        ReflectionTestUtils.setField(occupancyIndexService, "horizonDays", 730);
+        occupancyIndexService.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void maxOccupancyMatchesAScanOverTheStays() {
+        for (int i = 0; i < 200; i++) {
+            Object[] query = randomStay();
+            assertThat(occupancyIndexService.maxOccupancy((Long) query[0], (LocalDate) query[1], (LocalDate) query[2]))
+                    .isEqualTo(scanMaxOccupancy(stays, (Long) query[0], (LocalDate) query[1], (LocalDate) query[2]));
+        }
+    }
+
+    @Test
+    void checkOutAndCheckInOnTheSameDayDoNotOverlap() {
+        LocalDate checkIn = today.plusDays(799);
+        occupancyIndexService.recordStay(999L, today.plusDays(10), today.plusDays(12), 1);
+
+        assertThat(occupancyIndexService.maxOccupancy(999L, today.plusDays(12), today.plusDays(14))).isZero();
+        assertThat(occupancyIndexService.maxOccupancy(999L, today.plusDays(11), today.plusDays(12))).isEqualTo(1);
+        assertThat(occupancyIndexService.covers(checkIn, checkIn.plusDays(1))).isTrue();
+        assertThat(occupancyIndexService.covers(today.minusDays(1), today.plusDays(1))).isFalse();
+    }
+
+    @Test
+    void rebuildPicksUpStaysBookedElsewhere() {
+        Object[] stay = {7L, today.plusDays(100), today.plusDays(103)};
+        int before = occupancyIndexService.maxOccupancy(7L, today.plusDays(100), today.plusDays(103));
+
+        // Committed on another node: this node only sees it after the next rebuild
+        stays.add(stay);
+        assertThat(occupancyIndexService.maxOccupancy(7L, today.plusDays(100), today.plusDays(103))).isEqualTo(before);
+
+        occupancyIndexService.rebuild();
+        assertThat(occupancyIndexService.maxOccupancy(7L, today.plusDays(100), today.plusDays(103)))
+                .isEqualTo(scanMaxOccupancy(stays, 7L, today.plusDays(100), today.plusDays(103)));
+    }
+
+    private Object[] randomStay() {
+        long roomTypeId = 1 + random.nextInt(ROOM_TYPES);
+        LocalDate checkIn = today.plusDays(random.nextInt(365));
+        return new Object[] {roomTypeId, checkIn, checkIn.plusDays(1 + random.nextInt(14))};
+    }
+
+    private static int scanMaxOccupancy(List<Object[]> stays, Long roomTypeId, LocalDate checkIn, LocalDate checkOut) {
+        int max = 0;
+        for (LocalDate night = checkIn; night.isBefore(checkOut); night = night.plusDays(1)) {
+            int taken = 0;
+            for (Object[] stay : stays) {
+                if (stay[0].equals(roomTypeId) && !night.isBefore((LocalDate) stay[1]) && night.isBefore((LocalDate) stay[2])) {
+                    taken++;
+                }
+            }
+            max = Math.max(max, taken);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,88 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.config.ShardRoutingDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReferenceDataReplicatorTest {
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE users (id BIGINT PRIMARY KEY, email VARCHAR(255) NOT NULL, updated_at TIMESTAMP(6))",
+            "CREATE TABLE hotels (id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL, updated_at TIMESTAMP(6))",
+            "CREATE TABLE room_types (id BIGINT PRIMARY KEY, hotel_id BIGINT NOT NULL REFERENCES hotels (id), "
+                    + "name VARCHAR(255) NOT NULL, updated_at TIMESTAMP(6))",
+            "CREATE TABLE rooms (id BIGINT PRIMARY KEY, room_type_id BIGINT NOT NULL REFERENCES room_types (id), "
+                    + "room_number VARCHAR(255) NOT NULL, updated_at TIMESTAMP(6))",
+            "CREATE TABLE bookings (id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL REFERENCES users (id), "
+                    + "room_type_id BIGINT NOT NULL REFERENCES room_types (id))"
+    };
+
+    private JdbcTemplate shard0;
+    private JdbcTemplate shard1;
+    private ReferenceDataReplicator replicator;
+
+    @BeforeEach
+    void setUp() {
+        Map<Object, Object> targets = new HashMap<>();
+        JdbcTemplate[] templates = new JdbcTemplate[2];
+        for (int shard = 0; shard < 2; shard++) {
+            DataSource dataSource = new DriverManagerDataSource(
+                    "jdbc:h2:mem:reference-shard" + shard + ";DB_CLOSE_DELAY=-1", "sa", "");
+            templates[shard] = new JdbcTemplate(dataSource);
+            templates[shard].execute("DROP ALL OBJECTS");
+            for (String statement : SCHEMA) {
+                templates[shard].execute(statement);
+            }
+            targets.put(shard, dataSource);
+        }
+        shard0 = templates[0];
+        shard1 = templates[1];
+
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource(2);
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(targets.get(0));
+        routingDataSource.afterPropertiesSet();
+
+        replicator = new ReferenceDataReplicator();
+        ReflectionTestUtils.setField(replicator, "shardRoutingDataSource", routingDataSource);
+    }
+
+    @Test
+    void bookingsOnAnotherShardCanReferenceReplicatedRows() {
+        shard0.update("INSERT INTO users VALUES (1, 'guest@example.com', CURRENT_TIMESTAMP)");
+        shard0.update("INSERT INTO hotels VALUES (10, 'Lake Palace', CURRENT_TIMESTAMP)");
+        shard0.update("INSERT INTO room_types VALUES (100, 10, 'Deluxe', CURRENT_TIMESTAMP)");
+        shard0.update("INSERT INTO rooms VALUES (1000, 100, '101', CURRENT_TIMESTAMP)");
+
+        replicator.replicate();
+
+        assertThat(shard1.queryForObject("SELECT email FROM users WHERE id = 1", String.class))
+                .isEqualTo("guest@example.com");
+        assertThat(shard1.queryForObject("SELECT COUNT(*) FROM rooms WHERE room_type_id = 100", Integer.class))
+                .isEqualTo(1);
+        // The foreign keys that used to fail on shard 1
+        shard1.update("INSERT INTO bookings VALUES (1000000000001, 1, 100)");
+    }
+
+    @Test
+    void laterPassesCopyChangesAndNewRows() {
+        shard0.update("INSERT INTO hotels VALUES (10, 'Lake Palace', CURRENT_TIMESTAMP)");
+        replicator.replicate();
+
+        shard0.update("UPDATE hotels SET name = 'Lake Palace Udaipur', updated_at = CURRENT_TIMESTAMP WHERE id = 10");
+        shard0.update("INSERT INTO hotels VALUES (11, 'Rambagh Palace', CURRENT_TIMESTAMP)");
+        replicator.replicate();
+
+        assertThat(shard1.queryForList("SELECT name FROM hotels ORDER BY id", String.class))
+                .containsExactly("Lake Palace Udaipur", "Rambagh Palace");
+    }
+}
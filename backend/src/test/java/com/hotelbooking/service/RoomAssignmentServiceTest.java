@@ -0,0 +1,220 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.model.Booking;
+import com.hotelbooking.model.BookingStatus;
+import com.hotelbooking.model.Hotel;
+import com.hotelbooking.model.Room;
+import com.hotelbooking.model.RoomAssignment;
+import com.hotelbooking.model.RoomStatus;
+import com.hotelbooking.model.RoomType;
+import com.hotelbooking.repository.BookingRepository;
+import com.hotelbooking.repository.HotelRepository;
+import com.hotelbooking.repository.RoomAssignmentRepository;
+import com.hotelbooking.repository.RoomRepository;
+import com.hotelbooking.repository.RoomTypeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Drives the room calendar through assignRooms and the nightly re-pack with the repositories mocked.
+// Room 10x belongs to room type 10; existing assignments are the calendar the service reads.
+class RoomAssignmentServiceTest {
+
+    private static final Long HOTEL_ID = 1L;
+    private static final Long ROOM_TYPE_ID = 10L;
+
+    private final LocalDate today = LocalDate.now();
+    private final Hotel hotel = new Hotel();
+    private final RoomType roomType = new RoomType();
+    private final List<Room> rooms = new ArrayList<>();
+    private final List<RoomAssignment> existing = new ArrayList<>();
+
+    private RoomRepository roomRepository;
+    private RoomAssignmentRepository roomAssignmentRepository;
+    private BookingRepository bookingRepository;
+    private RoomAssignmentService roomAssignmentService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        hotel.setId(HOTEL_ID);
+        roomType.setId(ROOM_TYPE_ID);
+        roomType.setHotel(hotel);
+
+        roomRepository = mock(RoomRepository.class);
+        // Filters like the query does, so the statuses the service excludes are what is tested
+        when(roomRepository.findAssignableRooms(eq(ROOM_TYPE_ID), any())).thenAnswer(invocation -> {
+            Collection<RoomStatus> excluded = invocation.getArgument(1);
+            return rooms.stream().filter(room -> !excluded.contains(room.getStatus())).toList();
+        });
+        roomAssignmentRepository = mock(RoomAssignmentRepository.class);
+        when(roomAssignmentRepository.findOverlapping(eq(ROOM_TYPE_ID), any(), any())).thenAnswer(invocation -> existing);
+        when(roomAssignmentRepository.saveAll(any(Iterable.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        bookingRepository = mock(BookingRepository.class);
+        RoomTypeRepository roomTypeRepository = mock(RoomTypeRepository.class);
+        when(roomTypeRepository.findByHotelId(HOTEL_ID)).thenReturn(List.of(roomType));
+        when(roomTypeRepository.lockByHotelIdAndIdIn(eq(HOTEL_ID), any())).thenReturn(List.of(roomType));
+        HotelRepository hotelRepository = mock(HotelRepository.class);
+        when(hotelRepository.findAll()).thenReturn(List.of(hotel));
+        ShardRouter shardRouter = mock(ShardRouter.class);
+        when(shardRouter.inHotelShard(anyLong(), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+
+        roomAssignmentService = new RoomAssignmentService();
+        ReflectionTestUtils.setField(roomAssignmentService, "roomRepository", roomRepository);
+        ReflectionTestUtils.setField(roomAssignmentService, "roomAssignmentRepository", roomAssignmentRepository);
+        ReflectionTestUtils.setField(roomAssignmentService, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(roomAssignmentService, "hotelRepository", hotelRepository);
+        ReflectionTestUtils.setField(roomAssignmentService, "roomTypeRepository", roomTypeRepository);
+        ReflectionTestUtils.setField(roomAssignmentService, "shardRouter", shardRouter);
+        ReflectionTestUtils.setField(roomAssignmentService, "reoptimizeThreads", 2);
+        roomAssignmentService.initExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        roomAssignmentService.shutdownExecutor();
+    }
+
+    @Test
+    void aStayGoesToTheRoomWhoseNeighbouringStaysLeaveTheSmallestGaps() {
+        Room empty = room(101, RoomStatus.AVAILABLE);
+        Room exactFit = room(102, RoomStatus.AVAILABLE);
+        Room freeAfter = room(103, RoomStatus.AVAILABLE);
+        occupy(exactFit, 1, 3);
+        occupy(exactFit, 5, 9);
+        occupy(freeAfter, 0, 3);
+
+        List<RoomAssignment> assigned = roomAssignmentService.assignRooms(booking(1L, 3, 5));
+
+        assertThat(assigned).extracting(a -> a.getRoom().getId(), RoomAssignment::getStartDate, RoomAssignment::getEndDate)
+                .containsExactly(tuple(102L, day(3), day(5)));
+    }
+
+    @Test
+    void aStayNoRoomCanTakeWholeIsSplitIntoTheFewestSegments() {
+        // Listed so that taking the first free room each night would need three rooms
+        Room freeTwoNights = room(103, RoomStatus.AVAILABLE);
+        Room freeFromNightOne = room(102, RoomStatus.AVAILABLE);
+        Room freeFourNights = room(101, RoomStatus.AVAILABLE);
+        occupy(freeTwoNights, 2, 10);
+        occupy(freeFromNightOne, 0, 1);
+        occupy(freeFourNights, 4, 10);
+
+        List<RoomAssignment> assigned = roomAssignmentService.assignRooms(booking(1L, 0, 6));
+
+        assertThat(assigned).extracting(a -> a.getRoom().getId(), RoomAssignment::getStartDate, RoomAssignment::getEndDate)
+                .containsExactly(tuple(101L, day(0), day(4)), tuple(102L, day(4), day(6)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void roomsUnderMaintenanceOrOutOfOrderAreNeverAssigned() {
+        Room full = room(101, RoomStatus.AVAILABLE);
+        Room maintenance = room(102, RoomStatus.MAINTENANCE);
+        room(103, RoomStatus.OUT_OF_ORDER);
+        Room partlyFree = room(104, RoomStatus.AVAILABLE);
+        occupy(full, 0, 10);
+        occupy(partlyFree, 3, 10);
+        // Assigned before the room went out of service; not in the calendar any more
+        occupy(maintenance, 0, 1);
+
+        List<RoomAssignment> assigned = roomAssignmentService.assignRooms(booking(1L, 0, 2));
+
+        assertThat(assigned).extracting(a -> a.getRoom().getId()).containsExactly(104L);
+        ArgumentCaptor<Collection<RoomStatus>> excluded = ArgumentCaptor.forClass(Collection.class);
+        verify(roomRepository).findAssignableRooms(eq(ROOM_TYPE_ID), excluded.capture());
+        assertThat(excluded.getValue()).containsExactlyInAnyOrder(RoomStatus.MAINTENANCE, RoomStatus.OUT_OF_ORDER);
+    }
+
+    @Test
+    void aNightWithEveryRoomTakenIsLeftUnassigned() {
+        Room only = room(101, RoomStatus.AVAILABLE);
+        occupy(only, 1, 2);
+
+        List<RoomAssignment> assigned = roomAssignmentService.assignRooms(booking(1L, 0, 3));
+
+        assertThat(assigned).extracting(RoomAssignment::getStartDate, RoomAssignment::getEndDate)
+                .containsExactly(tuple(day(0), day(1)), tuple(day(2), day(3)));
+    }
+
+    @Test
+    void onlyConfirmedBookingsAreAssigned() {
+        room(101, RoomStatus.AVAILABLE);
+        Booking pending = booking(1L, 0, 2);
+        pending.setStatus(BookingStatus.PENDING);
+
+        assertThat(roomAssignmentService.assignRooms(pending)).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void nightlyRepackKeepsInHouseGuestsAndPlacesLongerArrivalsFirst() {
+        Room first = room(101, RoomStatus.AVAILABLE);
+        Room second = room(102, RoomStatus.AVAILABLE);
+        Booking inHouse = booking(9L, -1, 2);
+        existing.add(new RoomAssignment(inHouse, first, day(-1), day(2)));
+        Booking shortStay = booking(1L, 2, 4);
+        Booking laterStay = booking(2L, 4, 6);
+        Booking longStay = booking(3L, 2, 6);
+        when(bookingRepository.findByRoomTypeIdAndStatusIn(ROOM_TYPE_ID, List.of(BookingStatus.CONFIRMED)))
+                .thenReturn(List.of(inHouse, shortStay, laterStay, longStay));
+
+        roomAssignmentService.reoptimizeAll();
+
+        ArgumentCaptor<Collection<Long>> released = ArgumentCaptor.forClass(Collection.class);
+        verify(roomAssignmentRepository).deleteByBookingIdIn(released.capture());
+        assertThat(released.getValue()).containsExactlyInAnyOrder(1L, 2L, 3L);
+
+        ArgumentCaptor<List<RoomAssignment>> saved = ArgumentCaptor.forClass(List.class);
+        verify(roomAssignmentRepository).saveAll(saved.capture());
+        // The long stay follows the in-house guest in the same room; the two short ones share the other
+        assertThat(saved.getValue())
+                .extracting(a -> a.getBooking().getId(), a -> a.getRoom().getId(), RoomAssignment::getStartDate)
+                .containsExactly(tuple(3L, first.getId(), day(2)), tuple(1L, second.getId(), day(2)),
+                        tuple(2L, second.getId(), day(4)));
+    }
+
+    private Room room(long id, RoomStatus status) {
+        Room room = new Room(roomType, String.valueOf(id), status);
+        room.setId(id);
+        rooms.add(room);
+        return room;
+    }
+
+    private void occupy(Room room, int fromDay, int toDay) {
+        existing.add(new RoomAssignment(booking(100L + existing.size(), fromDay, toDay), room, day(fromDay), day(toDay)));
+    }
+
+    private Booking booking(Long id, int checkInDay, int checkOutDay) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setHotel(hotel);
+        booking.setRoomType(roomType);
+        booking.setCheckInDate(day(checkInDay));
+        booking.setCheckOutDate(day(checkOutDay));
+        booking.setStatus(BookingStatus.CONFIRMED);
+        return booking;
+    }
+
+    private LocalDate day(int offset) {
+        return today.plusDays(offset);
+    }
+}
@@ -0,0 +1,112 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.config.ShardContext;
+import com.hotelbooking.config.ShardRoutingDataSource;
+import com.hotelbooking.config.ShardingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardRouterTest {
+
+    private static final int SHARDS = 3;
+
+    private ShardRoutingDataSource routingDataSource;
+    private ShardRouter shardRouter;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:router-shard" + shard + ";DB_CLOSE_DELAY=-1", "sa", "");
+            JdbcTemplate shardTemplate = new JdbcTemplate(dataSource);
+            shardTemplate.execute("CREATE TABLE IF NOT EXISTS shard_marker (shard INTEGER)");
+            shardTemplate.execute("DELETE FROM shard_marker");
+            shardTemplate.update("INSERT INTO shard_marker (shard) VALUES (?)", shard);
+            targets.put(shard, dataSource);
+        }
+        routingDataSource = new ShardRoutingDataSource(SHARDS);
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(targets.get(0));
+        routingDataSource.afterPropertiesSet();
+
+        ShardingProperties properties = new ShardingProperties();
+        properties.setIdBlockSize(1_000L);
+
+        shardRouter = new ShardRouter();
+        ReflectionTestUtils.setField(shardRouter, "shardRoutingDataSource", routingDataSource);
+        ReflectionTestUtils.setField(shardRouter, "shardingProperties", properties);
+        ReflectionTestUtils.setField(shardRouter, "transactionManager", new DataSourceTransactionManager(routingDataSource));
+        shardRouter.initExecutor();
+
+        jdbcTemplate = new JdbcTemplate(routingDataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardRouter.shutdownExecutor();
+        ShardContext.set(null);
+    }
+
+    @Test
+    void hotelsAreSpreadByIdModuloShardCount() {
+        assertThat(shardRouter.shardForHotel(3L)).isEqualTo(0);
+        assertThat(shardRouter.shardForHotel(4L)).isEqualTo(1);
+        assertThat(shardRouter.shardForHotel(8L)).isEqualTo(2);
+    }
+
+    @Test
+    void idsNameTheShardOfTheirBlock() {
+        assertThat(shardRouter.shardForId(999L)).isEqualTo(0);
+        assertThat(shardRouter.shardForId(1_000L)).isEqualTo(1);
+        assertThat(shardRouter.shardForId(2_500L)).isEqualTo(2);
+        // Ids past the last block stay on the last shard
+        assertThat(shardRouter.shardForId(9_000L)).isEqualTo(2);
+    }
+
+    @Test
+    void hotelWorkRunsOnTheHotelsShard() {
+        for (long hotelId = 1; hotelId <= 6; hotelId++) {
+            Integer shard = shardRouter.inHotelShard(hotelId,
+                    () -> jdbcTemplate.queryForObject("SELECT shard FROM shard_marker", Integer.class));
+            assertThat(shard).isEqualTo(shardRouter.shardForHotel(hotelId));
+        }
+        assertThat(ShardContext.current()).isNull();
+    }
+
+    @Test
+    void nestedWorkOnAnotherShardGetsItsOwnConnection() {
+        List<Integer> shards = shardRouter.inShard(1, false, () -> {
+            Integer outer = jdbcTemplate.queryForObject("SELECT shard FROM shard_marker", Integer.class);
+            Integer inner = shardRouter.inShard(2, true,
+                    () -> jdbcTemplate.queryForObject("SELECT shard FROM shard_marker", Integer.class));
+            Integer outerAgain = jdbcTemplate.queryForObject("SELECT shard FROM shard_marker", Integer.class);
+            return List.of(outer, inner, outerAgain);
+        });
+        assertThat(shards).containsExactly(1, 2, 1);
+    }
+
+    @Test
+    void scatterGatherReadsEveryShard() {
+        List<Integer> shards = shardRouter.scatterGather(
+                () -> jdbcTemplate.queryForList("SELECT shard FROM shard_marker", Integer.class));
+        assertThat(shards).containsExactlyInAnyOrder(0, 1, 2);
+    }
+
+    @Test
+    void withoutAShardWorkGoesToShardZero() {
+        assertThat(jdbcTemplate.queryForObject("SELECT shard FROM shard_marker", Integer.class)).isEqualTo(0);
+    }
+}
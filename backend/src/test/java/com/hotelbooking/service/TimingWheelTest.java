@@ -0,0 +1,164 @@
+package com.hotelbooking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 10 ms ticks and 8 buckets per level: level 0 spans 80 ms, level 1 640 ms, level 2 5.12 s
+class TimingWheelTest {
+
+    private static final long TICK_MS = 10;
+    private static final int WHEEL_SIZE = 8;
+    // Generous bound on how late a timer may fire on a busy build machine
+    private static final long LATE_MS = 250;
+
+    private final Map<Long, Long> firedAt = new ConcurrentHashMap<>();
+    private final AtomicInteger fireCount = new AtomicInteger();
+    private TimingWheel wheel;
+
+    @AfterEach
+    void tearDown() {
+        if (wheel != null) {
+            wheel.stop();
+        }
+    }
+
+    @Test
+    void timersDueInTheCurrentTickFireOnTheSchedulingThread() {
+        long created = System.currentTimeMillis();
+        wheel = new TimingWheel(TICK_MS, WHEEL_SIZE, this::record);
+        // Not started: nothing but schedule() itself can fire these
+        wheel.schedule(1L, created - 1_000);
+        wheel.schedule(2L, created - created % TICK_MS);
+        wheel.schedule(3L, created + 60_000);
+
+        assertThat(firedAt).containsOnlyKeys(1L, 2L);
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void timersBeyondLevelZeroDropThroughTheLevelsAndFireOnTime() throws Exception {
+        CountDownLatch fired = new CountDownLatch(3);
+        wheel = new TimingWheel(TICK_MS, WHEEL_SIZE, key -> {
+            record(key);
+            fired.countDown();
+        });
+        wheel.start();
+
+        long now = System.currentTimeMillis();
+        Map<Long, Long> expiries = Map.of(
+                1L, now + 50,     // level 0
+                2L, now + 300,    // level 1, then level 0
+                3L, now + 1_500); // level 2, then 1, then 0
+        expiries.forEach(wheel::schedule);
+
+        assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+        expiries.forEach((key, expiresAt) ->
+                assertThat(firedAt.get(key)).as("timer %d", key).isBetween(expiresAt, expiresAt + LATE_MS));
+        assertThat(fireCount).hasValue(3);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cancelledAndReplacedTimersDoNotFire() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        wheel = new TimingWheel(TICK_MS, WHEEL_SIZE, key -> {
+            record(key);
+            fired.countDown();
+        });
+        wheel.start();
+
+        long now = System.currentTimeMillis();
+        wheel.schedule(1L, now + 100);
+        wheel.schedule(2L, now + 700);
+        wheel.cancel(1L);
+        wheel.cancel(2L);
+        // Rescheduled: only the later expiry counts
+        wheel.schedule(3L, now + 60);
+        wheel.schedule(3L, now + 200);
+        assertThat(wheel.size()).isEqualTo(1);
+
+        assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(800);
+        assertThat(firedAt).containsOnlyKeys(3L);
+        assertThat(firedAt.get(3L)).isGreaterThanOrEqualTo(now + 200);
+        assertThat(fireCount).hasValue(1);
+    }
+
+    @Test
+    void concurrentSchedulingAndCancellingWhileTheWheelAdvances() throws Exception {
+        int threads = 8;
+        int timersPerThread = 1_000;
+        Set<Long> cancelled = ConcurrentHashMap.newKeySet();
+        Map<Long, Long> expiries = new ConcurrentHashMap<>();
+        wheel = new TimingWheel(TICK_MS, WHEEL_SIZE, this::record);
+        wheel.start();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> schedulers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            schedulers.add(pool.submit(() -> {
+                start.await();
+                Random random = new Random(thread);
+                for (int i = 0; i < timersPerThread; i++) {
+                    long key = (long) thread * timersPerThread + i;
+                    // Spread over all three levels, including timers already due
+                    long expiresAt = System.currentTimeMillis() - 20 + random.nextInt(1_000);
+                    expiries.put(key, expiresAt);
+                    wheel.schedule(key, expiresAt);
+                    // Every odd key is cancelled again, possibly after it already fired
+                    if (i % 2 == 1) {
+                        wheel.cancel(key);
+                        cancelled.add(key);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> scheduler : schedulers) {
+            scheduler.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        Set<Long> expected = new HashSet<>(expiries.keySet());
+        expected.removeAll(cancelled);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!firedAt.keySet().containsAll(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        for (long key = 0; key < (long) threads * timersPerThread; key++) {
+            if (!cancelled.contains(key)) {
+                assertThat(firedAt).containsKey(key);
+            }
+            if (firedAt.containsKey(key)) {
+                assertThat(firedAt.get(key)).as("timer %d", key).isGreaterThanOrEqualTo(expiries.get(key));
+            }
+        }
+        // Each timer fires at most once; a cancelled one only if it was already due when scheduled
+        assertThat(fireCount.get()).isEqualTo(firedAt.size());
+        assertThat(wheel.size()).isZero();
+    }
+
+    private void record(long key) {
+        fireCount.incrementAndGet();
+        firedAt.put(key, System.currentTimeMillis());
+    }
+}
@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { useDispatch, useSelector } from 'react-redux';
 import {
   Dialog,
@@ -16,30 +16,54 @@ import {
   CardContent,
   Divider,
   Chip,
+  MenuItem,
 } from '@mui/material';
 import { 
   CalendarToday, 
   Person, 
   CurrencyRupee,
   Hotel as HotelIcon,
-  CheckCircle
+  CheckCircle,
+  AccessTime
 } from '@mui/icons-material';
 import { Formik, Form, Field } from 'formik';
 import * as Yup from 'yup';
-import { createBooking, clearError, clearBookingSuccess } from '../../store/bookingSlice';
+import {
+  placeHold,
+  confirmHold,
+  releaseHold,
+  clearCurrentHold,
+  clearError,
+  clearBookingSuccess,
+} from '../../store/bookingSlice';
+import api from '../../services/api';
+
+const PAYMENT_METHODS = [
+  { value: 'CREDIT_CARD', label: 'Credit Card' },
+  { value: 'DEBIT_CARD', label: 'Debit Card' },
+  { value: 'PAYPAL', label: 'PayPal' },
+  { value: 'BANK_TRANSFER', label: 'Bank Transfer' },
+];
 
 const validationSchema = Yup.object({
+  paymentMethod: Yup.string().required('Please choose a payment method'),
   specialRequests: Yup.string().max(500, 'Special requests must be less than 500 characters'),
 });
 
 const BookingDialog = ({ open, onClose, hotel }) => {
   const dispatch = useDispatch();
-  const { isLoading, error, bookingSuccess } = useSelector((state) => state.bookings);
+  const { isLoading, error, bookingSuccess, currentHold } = useSelector((state) => state.bookings);
   const { searchParams } = useSelector((state) => state.hotels);
   const [roomTypeId] = useState(1); // Default room type - in a real app, this would be selected
   const [totalAmount, setTotalAmount] = useState(0);
   const [numberOfNights, setNumberOfNights] = useState(0);
   const [pricePerNight, setPricePerNight] = useState(0);
+  const [subtotal, setSubtotal] = useState(0);
+  const [taxes, setTaxes] = useState(0);
+  const [quoteToken, setQuoteToken] = useState(null);
+  const [quoteSettled, setQuoteSettled] = useState(false);
+  const [secondsLeft, setSecondsLeft] = useState(null);
+  const holdRequested = useRef(false);
 
   // Calculate booking details
   useEffect(() => {
@@ -66,22 +90,97 @@ const BookingDialog = ({ open, onClose, hotel }) => {
       
       setNumberOfNights(nights);
       setPricePerNight(finalPricePerNight);
+      setSubtotal(subtotal);
+      setTaxes(taxes);
       setTotalAmount(total);
+      setQuoteToken(null);
+      setQuoteSettled(false);
+
+      // Replace the local estimate with a signed server quote when one is available
+      let cancelled = false;
+      api.get('/quotes', {
+        params: {
+          roomTypeId,
+          checkInDate: searchParams.checkInDate,
+          checkOutDate: searchParams.checkOutDate,
+          guestCount: searchParams.guestCount || 1,
+        },
+      })
+        .then((response) => {
+          if (cancelled) return;
+          const quote = response.data;
+          setPricePerNight(Math.round(quote.subtotal / quote.nights.length));
+          setSubtotal(quote.subtotal);
+          setTaxes(quote.taxAmount);
+          setTotalAmount(quote.totalAmount);
+          setQuoteToken(quote.quoteToken);
+          setQuoteSettled(true);
+        })
+        .catch(() => {
+          // Keep the local estimate; the booking will be priced by the server
+          if (!cancelled) setQuoteSettled(true);
+        });
+
+      return () => {
+        cancelled = true;
+      };
     }
-  }, [searchParams.checkInDate, searchParams.checkOutDate, hotel]);
+  }, [searchParams.checkInDate, searchParams.checkOutDate, searchParams.guestCount, hotel, roomTypeId]);
 
-  const handleSubmit = async (values) => {
-    const bookingData = {
+  // Hold the room once the price is known, so the guest pays what the hold was priced at
+  useEffect(() => {
+    if (!open) {
+      holdRequested.current = false;
+      return;
+    }
+    if (!quoteSettled || holdRequested.current || !hotel
+        || !searchParams.checkInDate || !searchParams.checkOutDate) {
+      return;
+    }
+    holdRequested.current = true;
+    dispatch(placeHold({
       hotelId: hotel.id,
       roomTypeId: roomTypeId,
       checkInDate: searchParams.checkInDate,
       checkOutDate: searchParams.checkOutDate,
       guestCount: searchParams.guestCount || 1,
-      specialRequests: values.specialRequests || '',
-    };
+      quoteToken: quoteToken,
+    }));
+  }, [open, quoteSettled, hotel, roomTypeId, searchParams.checkInDate, searchParams.checkOutDate,
+      searchParams.guestCount, quoteToken, dispatch]);
+
+  // Count down the hold. Both timestamps come from the server clock, so their difference is the
+  // TTL regardless of the browser's time zone.
+  useEffect(() => {
+    if (!currentHold?.holdExpiresAt || !currentHold?.createdAt) {
+      setSecondsLeft(null);
+      return undefined;
+    }
+    const ttlMs = new Date(currentHold.holdExpiresAt) - new Date(currentHold.createdAt);
+    const deadline = Date.now() + ttlMs;
+    const tick = () => setSecondsLeft(Math.max(0, Math.round((deadline - Date.now()) / 1000)));
+    tick();
+    const timer = setInterval(tick, 1000);
+    return () => clearInterval(timer);
+  }, [currentHold]);
+
+  // The hold's price is the one that will be charged
+  useEffect(() => {
+    if (currentHold?.totalAmount != null) {
+      setTotalAmount(Number(currentHold.totalAmount));
+    }
+  }, [currentHold]);
+
+  const holdExpired = secondsLeft === 0;
+
+  const handleSubmit = async (values) => {
+    if (!currentHold) return;
 
-    const result = await dispatch(createBooking(bookingData));
-    if (result.type === 'bookings/createBooking/fulfilled') {
+    const result = await dispatch(confirmHold({
+      holdId: currentHold.id,
+      paymentMethod: values.paymentMethod,
+    }));
+    if (result.type === 'bookings/confirmHold/fulfilled') {
       setTimeout(() => {
         onClose();
         dispatch(clearBookingSuccess());
@@ -90,6 +189,11 @@ const BookingDialog = ({ open, onClose, hotel }) => {
   };
 
   const handleClose = () => {
+    // Give the room back right away instead of waiting for the hold to expire
+    if (currentHold && !bookingSuccess) {
+      dispatch(releaseHold(currentHold.id));
+    }
+    dispatch(clearCurrentHold());
     dispatch(clearError());
     dispatch(clearBookingSuccess());
     onClose();
@@ -135,6 +239,18 @@ const BookingDialog = ({ open, onClose, hotel }) => {
           </Alert>
         )}
 
+        {currentHold && !bookingSuccess && secondsLeft !== null && (
+          <Alert
+            severity={holdExpired ? 'warning' : 'info'}
+            sx={{ mb: 3, borderRadius: 2 }}
+            icon={<AccessTime />}
+          >
+            {holdExpired
+              ? 'Your room hold has expired. Close this dialog and book again.'
+              : `Your room is held for ${Math.floor(secondsLeft / 60)}:${String(secondsLeft % 60).padStart(2, '0')}`}
+          </Alert>
+        )}
+
         {bookingSuccess && (
           <Alert 
             severity="success" 
@@ -230,6 +346,7 @@ const BookingDialog = ({ open, onClose, hotel }) => {
 
                 <Formik
                   initialValues={{
+                    paymentMethod: 'CREDIT_CARD',
                     specialRequests: '',
                   }}
                   validationSchema={validationSchema}
@@ -237,6 +354,30 @@ const BookingDialog = ({ open, onClose, hotel }) => {
                 >
                   {({ errors, touched }) => (
                     <Form>
+                      <Box mt={3}>
+                        <Field
+                          as={TextField}
+                          select
+                          name="paymentMethod"
+                          label="Payment Method"
+                          fullWidth
+                          error={touched.paymentMethod && Boolean(errors.paymentMethod)}
+                          helperText={touched.paymentMethod && errors.paymentMethod}
+                          disabled={isLoading}
+                          sx={{
+                            '& .MuiOutlinedInput-root': {
+                              borderRadius: 2,
+                            }
+                          }}
+                        >
+                          {PAYMENT_METHODS.map((method) => (
+                            <MenuItem key={method.value} value={method.value}>
+                              {method.label}
+                            </MenuItem>
+                          ))}
+                        </Field>
+                      </Box>
+
                       <Box mt={3}>
                         <Field
                           as={TextField}
@@ -269,7 +410,7 @@ const BookingDialog = ({ open, onClose, hotel }) => {
                           type="submit"
                           variant="contained"
                           size="large"
-                          disabled={isLoading || bookingSuccess || !searchParams.checkInDate || !searchParams.checkOutDate}
+                          disabled={isLoading || bookingSuccess || !currentHold || holdExpired}
                           startIcon={isLoading ? <CircularProgress size={20} /> : null}
                           sx={{ 
                             borderRadius: 2, 
@@ -306,7 +447,7 @@ const BookingDialog = ({ open, onClose, hotel }) => {
                       ₹{pricePerNight.toLocaleString('en-IN')} × {numberOfNights} {numberOfNights === 1 ? 'night' : 'nights'}
                     </Typography>
                     <Typography variant="body2">
-                      ₹{(pricePerNight * numberOfNights).toLocaleString('en-IN')}
+                      ₹{subtotal.toLocaleString('en-IN')}
                     </Typography>
                   </Box>
                   
@@ -315,7 +456,7 @@ const BookingDialog = ({ open, onClose, hotel }) => {
                       Taxes & Fees (18% GST)
                     </Typography>
                     <Typography variant="body2" color="text.secondary">
-                      ₹{(pricePerNight * numberOfNights * 0.18).toLocaleString('en-IN')}
+                      ₹{taxes.toLocaleString('en-IN')}
                     </Typography>
                   </Box>
                 </Box>
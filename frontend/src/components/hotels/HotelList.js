@@ -1,5 +1,5 @@
 import { useSelector, useDispatch } from 'react-redux';
-import { useEffect } from 'react';
+import { useEffect, useState } from 'react';
 import {
   Grid,
   Typography,
@@ -27,33 +27,15 @@ const HotelList = () => {
   const { searchResults, isLoading, error } = useSelector((state) => state.hotels);
   const { hotels, currentPage, totalPages, totalItems } = searchResults;
 
+  const [socketConnected, setSocketConnected] = useState(false);
+  const hotelIds = (hotels || []).map((hotel) => hotel.id).join(',');
+
   // WebSocket for real-time updates
   useEffect(() => {
     const connectWebSocket = async () => {
       try {
         await webSocketService.connect();
-        
-        // Subscribe to hotel updates
-        webSocketService.subscribeToHotelUpdates((notification) => {
-          console.log('Hotel updated:', notification);
-          // Refresh hotel list when updates occur
-          dispatch(searchHotels({}));
-        });
-
-        // Subscribe to price updates
-        webSocketService.subscribeToPriceUpdates((notification) => {
-          console.log('Price updated:', notification);
-          // Refresh hotel list when prices change
-          dispatch(searchHotels({}));
-        });
-
-        // Subscribe to image updates
-        webSocketService.subscribeToImageUpdates((notification) => {
-          console.log('Image updated:', notification);
-          // Refresh hotel list when images change
-          dispatch(searchHotels({}));
-        });
-
+        setSocketConnected(true);
       } catch (error) {
         console.error('Failed to connect WebSocket:', error);
       }
@@ -65,7 +47,27 @@ const HotelList = () => {
     return () => {
       webSocketService.disconnect();
     };
-  }, [dispatch]);
+  }, []);
+
+  // Only listen to the hotels currently on screen
+  useEffect(() => {
+    if (!socketConnected || !hotelIds) {
+      return undefined;
+    }
+
+    const ids = hotelIds.split(',');
+    ids.forEach((hotelId) => {
+      webSocketService.subscribeToHotel(hotelId, (notification) => {
+        console.log('Hotel events:', notification);
+        // Refresh hotel list when hotel details, prices or images change
+        dispatch(searchHotels({}));
+      });
+    });
+
+    return () => {
+      ids.forEach((hotelId) => webSocketService.unsubscribe(`hotel-${hotelId}`));
+    };
+  }, [socketConnected, hotelIds, dispatch]);
 
   if (isLoading) {
     return (
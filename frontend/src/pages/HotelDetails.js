@@ -15,14 +15,15 @@ import {
   Divider,
 } from '@mui/material';
 import { LocationOn, ArrowBack } from '@mui/icons-material';
-import { getHotelById, clearSelectedHotel } from '../store/hotelSlice';
+import { getHotelById, clearSelectedHotel, applyRoomAvailability } from '../store/hotelSlice';
 import BookingDialog from '../components/booking/BookingDialog';
+import webSocketService from '../services/websocket';
 
 const HotelDetails = () => {
   const { id } = useParams();
   const navigate = useNavigate();
   const dispatch = useDispatch();
-  const { selectedHotel, isLoading, error } = useSelector((state) => state.hotels);
+  const { selectedHotel, liveAvailability, isLoading, error } = useSelector((state) => state.hotels);
   const [bookingDialogOpen, setBookingDialogOpen] = useState(false);
 
   useEffect(() => {
@@ -35,6 +36,31 @@ const HotelDetails = () => {
     };
   }, [dispatch, id]);
 
+  // Live remaining-room counts pushed after bookings and cancellations commit
+  useEffect(() => {
+    if (!id) {
+      return undefined;
+    }
+
+    const subscribe = () => webSocketService.subscribeToHotel(id, (notification) => {
+      (notification.events || [])
+        .filter((event) => event.type === 'ROOM_AVAILABILITY')
+        .forEach((event) => dispatch(applyRoomAvailability(event)));
+    });
+
+    if (webSocketService.isConnected()) {
+      subscribe();
+    } else {
+      webSocketService.connect().then(subscribe).catch((error) => {
+        console.error('Failed to connect WebSocket:', error);
+      });
+    }
+
+    return () => {
+      webSocketService.unsubscribe(`hotel-${id}`);
+    };
+  }, [dispatch, id]);
+
   const parseAmenities = (amenitiesData) => {
     if (!amenitiesData) return [];
     
@@ -99,6 +125,7 @@ const HotelDetails = () => {
   }
 
   const amenities = parseAmenities(selectedHotel.amenities);
+  const liveRoomTypes = Object.values(liveAvailability || {});
 
   return (
     <Container maxWidth="lg">
@@ -165,6 +192,28 @@ const HotelDetails = () => {
             </Grid>
           )}
 
+          {liveRoomTypes.length > 0 && (
+            <Grid item xs={12}>
+              <Divider sx={{ my: 2 }} />
+              <Typography variant="h5" gutterBottom>
+                Live Availability
+              </Typography>
+              <Box display="flex" flexWrap="wrap" gap={1}>
+                {liveRoomTypes.map(({ roomType, nights }) => {
+                  const fewest = Math.min(...Object.values(nights));
+                  return (
+                    <Chip
+                      key={roomType}
+                      label={fewest === 0 ? `${roomType}: sold out on some dates` : `${roomType}: as few as ${fewest} rooms left`}
+                      color={fewest <= 2 ? 'warning' : 'default'}
+                      variant="outlined"
+                    />
+                  );
+                })}
+              </Box>
+            </Grid>
+          )}
+
           <Grid item xs={12}>
             <Divider sx={{ my: 2 }} />
             <Typography variant="h5" gutterBottom>
@@ -50,79 +50,36 @@ class WebSocketService {
     }
   }
 
-  subscribeToHotelUpdates(callback) {
-    if (!this.connected) {
-      console.warn('WebSocket not connected. Cannot subscribe to hotel updates.');
-      return null;
-    }
-
-    const subscription = this.stompClient.subscribe('/topic/hotel-updates', (message) => {
-      try {
-        const notification = JSON.parse(message.body);
-        callback(notification);
-      } catch (error) {
-        console.error('Error parsing hotel update notification:', error);
-      }
-    });
-
-    this.subscriptions.set('hotel-updates', subscription);
-    return subscription;
+  // Events arrive batched per hotel: { type: 'HOTEL_EVENTS', hotelId, events: [...] }
+  subscribeToHotel(hotelId, callback) {
+    return this.subscribeToTopic(`/topic/hotels/${hotelId}`, `hotel-${hotelId}`, callback);
   }
 
-  subscribeToPriceUpdates(callback) {
-    if (!this.connected) {
-      console.warn('WebSocket not connected. Cannot subscribe to price updates.');
-      return null;
-    }
-
-    const subscription = this.stompClient.subscribe('/topic/price-updates', (message) => {
-      try {
-        const notification = JSON.parse(message.body);
-        callback(notification);
-      } catch (error) {
-        console.error('Error parsing price update notification:', error);
-      }
-    });
-
-    this.subscriptions.set('price-updates', subscription);
-    return subscription;
+  subscribeToCity(city, callback) {
+    const slug = city.trim().toLowerCase().replace(/[^a-z0-9]+/g, '-');
+    return this.subscribeToTopic(`/topic/cities/${slug}`, `city-${slug}`, callback);
   }
 
-  subscribeToImageUpdates(callback) {
+  subscribeToTopic(destination, key, callback) {
     if (!this.connected) {
-      console.warn('WebSocket not connected. Cannot subscribe to image updates.');
+      console.warn(`WebSocket not connected. Cannot subscribe to ${destination}.`);
       return null;
     }
 
-    const subscription = this.stompClient.subscribe('/topic/image-updates', (message) => {
-      try {
-        const notification = JSON.parse(message.body);
-        callback(notification);
-      } catch (error) {
-        console.error('Error parsing image update notification:', error);
-      }
-    });
-
-    this.subscriptions.set('image-updates', subscription);
-    return subscription;
-  }
-
-  subscribeToAvailabilityUpdates(callback) {
-    if (!this.connected) {
-      console.warn('WebSocket not connected. Cannot subscribe to availability updates.');
-      return null;
+    if (this.subscriptions.has(key)) {
+      this.unsubscribe(key);
     }
 
-    const subscription = this.stompClient.subscribe('/topic/availability-updates', (message) => {
+    const subscription = this.stompClient.subscribe(destination, (message) => {
       try {
         const notification = JSON.parse(message.body);
         callback(notification);
       } catch (error) {
-        console.error('Error parsing availability update notification:', error);
+        console.error(`Error parsing notification from ${destination}:`, error);
       }
     });
 
-    this.subscriptions.set('availability-updates', subscription);
+    this.subscriptions.set(key, subscription);
     return subscription;
   }
 
@@ -14,6 +14,47 @@ export const createBooking = createAsyncThunk(
   }
 );
 
+// Checkout holds: the room is kept for a few minutes while the guest pays
+export const placeHold = createAsyncThunk(
+  'bookings/placeHold',
+  async (bookingData, { rejectWithValue }) => {
+    try {
+      const response = await api.post('/bookings/holds', bookingData);
+      return response.data;
+    } catch (error) {
+      return rejectWithValue(error.response?.data?.message || 'Could not hold the room');
+    }
+  }
+);
+
+export const confirmHold = createAsyncThunk(
+  'bookings/confirmHold',
+  async ({ holdId, paymentMethod }, { rejectWithValue }) => {
+    try {
+      // A retried or double-clicked confirmation replays the first one instead of paying again
+      const response = await api.post(`/bookings/holds/${holdId}/confirm`, null, {
+        params: { paymentMethod },
+        headers: { 'Idempotency-Key': `confirm-hold-${holdId}` },
+      });
+      return response.data;
+    } catch (error) {
+      return rejectWithValue(error.response?.data?.message || 'Booking failed');
+    }
+  }
+);
+
+export const releaseHold = createAsyncThunk(
+  'bookings/releaseHold',
+  async (holdId, { rejectWithValue }) => {
+    try {
+      const response = await api.delete(`/bookings/holds/${holdId}`);
+      return response.data;
+    } catch (error) {
+      return rejectWithValue(error.response?.data?.message || 'Failed to release hold');
+    }
+  }
+);
+
 export const getMyBookings = createAsyncThunk(
   'bookings/getMyBookings',
   async (_, { rejectWithValue }) => {
@@ -43,6 +84,7 @@ const bookingSlice = createSlice({
   initialState: {
     bookings: [],
     currentBooking: null,
+    currentHold: null,
     isLoading: false,
     error: null,
     bookingSuccess: false,
@@ -57,6 +99,9 @@ const bookingSlice = createSlice({
     clearCurrentBooking: (state) => {
       state.currentBooking = null;
     },
+    clearCurrentHold: (state) => {
+      state.currentHold = null;
+    },
   },
   extraReducers: (builder) => {
     builder
@@ -81,6 +126,38 @@ const bookingSlice = createSlice({
         state.error = action.payload;
         state.bookingSuccess = false;
       })
+      // Holds
+      .addCase(placeHold.pending, (state) => {
+        state.error = null;
+        state.currentHold = null;
+      })
+      .addCase(placeHold.fulfilled, (state, action) => {
+        state.currentHold = action.payload;
+      })
+      .addCase(placeHold.rejected, (state, action) => {
+        state.error = action.payload;
+      })
+      .addCase(confirmHold.pending, (state) => {
+        state.isLoading = true;
+        state.error = null;
+        state.bookingSuccess = false;
+      })
+      .addCase(confirmHold.fulfilled, (state, action) => {
+        state.isLoading = false;
+        state.currentBooking = action.payload;
+        state.currentHold = null;
+        state.bookingSuccess = true;
+        if (state.bookings) {
+          state.bookings.unshift(action.payload);
+        }
+      })
+      .addCase(confirmHold.rejected, (state, action) => {
+        state.isLoading = false;
+        state.error = action.payload;
+      })
+      .addCase(releaseHold.fulfilled, (state) => {
+        state.currentHold = null;
+      })
       // Get My Bookings
       .addCase(getMyBookings.pending, (state) => {
         state.isLoading = true;
@@ -106,5 +183,5 @@ const bookingSlice = createSlice({
   },
 });
 
-export const { clearError, clearBookingSuccess, clearCurrentBooking } = bookingSlice.actions;
+export const { clearError, clearBookingSuccess, clearCurrentBooking, clearCurrentHold } = bookingSlice.actions;
 export default bookingSlice.reducer;
\ No newline at end of file
@@ -71,6 +71,7 @@ const hotelSlice = createSlice({
     },
     selectedHotel: null,
     hotelRooms: [],
+    liveAvailability: {},
     searchParams: {
       city: '',
       country: '',
@@ -97,6 +98,17 @@ const hotelSlice = createSlice({
     clearSelectedHotel: (state) => {
       state.selectedHotel = null;
       state.hotelRooms = [];
+      state.liveAvailability = {};
+    },
+    applyRoomAvailability: (state, action) => {
+      const { roomTypeId, roomType, ranges } = action.payload;
+      const nights = { ...(state.liveAvailability[roomTypeId]?.nights || {}) };
+      ranges.forEach(({ startDate, endDate, availableRooms }) => {
+        for (let night = new Date(startDate); night <= new Date(endDate); night.setUTCDate(night.getUTCDate() + 1)) {
+          nights[night.toISOString().slice(0, 10)] = availableRooms;
+        }
+      });
+      state.liveAvailability[roomTypeId] = { roomType, nights };
     },
     clearError: (state) => {
       state.error = null;
@@ -153,5 +165,5 @@ const hotelSlice = createSlice({
   },
 });
 
-export const { setSearchParams, clearSearchResults, clearSelectedHotel, clearError } = hotelSlice.actions;
+export const { setSearchParams, clearSearchResults, clearSelectedHotel, clearError, applyRoomAvailability } = hotelSlice.actions;
 export default hotelSlice.reducer;
\ No newline at end of file